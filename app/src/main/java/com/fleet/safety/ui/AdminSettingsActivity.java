@@ -18,7 +18,7 @@ public class AdminSettingsActivity extends AppCompatActivity {
         binding = ActivityAdminSettingsBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        settingsStore = new SettingsStore(this);
+        settingsStore = SettingsStore.get(this);
 
         loadSettings();
 
@@ -26,9 +26,10 @@ public class AdminSettingsActivity extends AppCompatActivity {
     }
 
     private void loadSettings() {
-        binding.inputMinSpeed.setText(String.valueOf(settingsStore.getMin()));
-        binding.inputMaxSpeed.setText(String.valueOf(settingsStore.getMax()));
-        binding.inputBaseSpeed.setText(String.valueOf(settingsStore.getBase()));
+        SettingsStore.Snapshot settings = settingsStore.getSettings();
+        binding.inputMinSpeed.setText(String.valueOf(settings.getMin()));
+        binding.inputMaxSpeed.setText(String.valueOf(settings.getMax()));
+        binding.inputBaseSpeed.setText(String.valueOf(settings.getBase()));
     }
 
     private void saveSettings() {
@@ -46,17 +47,16 @@ public class AdminSettingsActivity extends AppCompatActivity {
             int max = Integer.parseInt(maxStr);
             int base = Integer.parseInt(baseStr);
 
-            if (min > max) {
-                Toast.makeText(this, "Min speed must be <= max speed", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
+            // Make sure the engine is subscribed before the save is published.
+            SharedSpeedEngine.get(this);
             settingsStore.save(min, max, base);
             Toast.makeText(this, "Saved", Toast.LENGTH_SHORT).show();
             finish();
 
         } catch (NumberFormatException e) {
             Toast.makeText(this, "Invalid number format", Toast.LENGTH_SHORT).show();
+        } catch (IllegalArgumentException e) {
+            Toast.makeText(this, e.getMessage(), Toast.LENGTH_SHORT).show();
         }
     }
 
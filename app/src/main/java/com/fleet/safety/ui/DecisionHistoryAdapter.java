@@ -0,0 +1,92 @@
+package com.fleet.safety.ui;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.fleet.safety.R;
+import com.fleet.safety.domain.DecisionHistory;
+import com.fleet.safety.domain.SpeedDecision;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Shows a {@link DecisionHistory}, newest first. Rows are recycled, and the time formatter,
+ * the Date it formats and the per-speed labels are reused across binds.
+ */
+public class DecisionHistoryAdapter extends RecyclerView.Adapter<DecisionHistoryAdapter.ViewHolder> {
+
+    private static final int MAX_CACHED_SPEED = 200;
+
+    private final DecisionHistory history;
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss", Locale.US);
+    private final Date date = new Date();
+    private final String[] speedLabels = new String[MAX_CACHED_SPEED + 1];
+
+    public DecisionHistoryAdapter(DecisionHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Records a decision and notifies the list; the oldest row drops off once the history is full.
+     */
+    public void add(long epochMillis, SpeedDecision decision) {
+        boolean overwrote = history.add(epochMillis, decision);
+        notifyItemInserted(0);
+        if (overwrote) {
+            notifyItemRemoved(history.size());
+        }
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_decision_history, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        date.setTime(history.timestampAt(position));
+        holder.timeView.setText(timeFormat.format(date));
+        holder.speedView.setText(speedLabel(holder.itemView, history.speedAt(position)));
+        holder.reasonView.setText(history.reasonAt(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return history.size();
+    }
+
+    private String speedLabel(View view, int speedKmh) {
+        if (speedKmh < 0 || speedKmh > MAX_CACHED_SPEED) {
+            return view.getContext().getString(R.string.max_speed_format, speedKmh);
+        }
+        String label = speedLabels[speedKmh];
+        if (label == null) {
+            label = view.getContext().getString(R.string.max_speed_format, speedKmh);
+            speedLabels[speedKmh] = label;
+        }
+        return label;
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView timeView;
+        final TextView speedView;
+        final TextView reasonView;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            timeView = itemView.findViewById(R.id.text_history_time);
+            speedView = itemView.findViewById(R.id.text_history_speed);
+            reasonView = itemView.findViewById(R.id.text_history_reason);
+        }
+    }
+}
@@ -1,45 +1,114 @@
 package com.fleet.safety.ui;
 
+import android.Manifest;
 import android.animation.ObjectAnimator;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 import android.widget.ArrayAdapter;
 import android.widget.Toast;
-import android.widget.LinearLayout;
-import android.widget.TextView;
-import android.view.ViewGroup;
-import android.graphics.Typeface;
+import android.view.View;
+import android.widget.AdapterView;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
 
+import com.fleet.safety.data.local.DecisionJournal;
+import com.fleet.safety.data.local.PersistentWeatherService;
+import com.fleet.safety.data.local.WeatherSnapshotStore;
+import com.fleet.safety.data.remote.CachingWeatherService;
+import com.fleet.safety.data.remote.CoalescingWeatherService;
 import com.fleet.safety.data.remote.OpenMeteoWeatherService;
-import com.fleet.safety.data.remote.WeatherCallback;
+import com.fleet.safety.data.remote.WeatherRequestOptions;
+import com.fleet.safety.data.remote.WeatherService;
 import com.fleet.safety.databinding.ActivityDriverDashboardBinding;
+import com.fleet.safety.domain.DecisionHistory;
 import com.fleet.safety.domain.DriverSettings;
+import com.fleet.safety.domain.GridCell;
 import com.fleet.safety.domain.RoadType;
+import com.fleet.safety.domain.RuleSetSpeedEngine;
+import com.fleet.safety.domain.SolarCalculator;
+import com.fleet.safety.domain.SpeedConfig;
 import com.fleet.safety.domain.SpeedDecision;
+import com.fleet.safety.domain.SpeedEvaluationPipeline;
 import com.fleet.safety.domain.SpeedRuleEngine;
 import com.fleet.safety.domain.TimeOfDay;
 import com.fleet.safety.domain.WeatherSnapshot;
-import com.fleet.safety.domain.WeatherType;
+import com.fleet.safety.metrics.Metrics;
+import com.fleet.safety.metrics.MetricsSnapshot;
 import com.fleet.safety.R;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class DriverDashboardActivity extends AppCompatActivity {
 
     private static final String TAG = "DriverDashboard";
-    private static final int MAX_HISTORY_ENTRIES = 5;
+    private static final int HISTORY_CAPACITY = 5000;
+    private static final String WEATHER_STORE_FILE = "weather-snapshots.bin";
+    private static final String SPEED_RULES_FILE = "speed-rules.txt";
+    private static final String DECISION_JOURNAL_DIR = "decision-journal";
+    private static final int LOCATION_PERMISSION_REQUEST = 1;
+    private static final long LOCATION_INTERVAL_MILLIS = 1000;
+    private static final long PIPELINE_INTERVAL_MILLIS = 1000;
+    private static final WeatherRequestOptions WEATHER_REQUEST_OPTIONS = WeatherRequestOptions.builder()
+            .withDeadlineMillis(8000)
+            .withHedgeDelayMillis(3000)
+            .build();
 
     private ActivityDriverDashboardBinding binding;
-    private SettingsStore settingsStore;
     private SpeedRuleEngine ruleEngine;
-    private OpenMeteoWeatherService weatherService;
+    private RuleSetSpeedEngine ruleSetEngine;
+    private OpenMeteoWeatherService openMeteoService;
+    private WeatherSnapshotStore weatherStore;
+    private WeatherService weatherService;
+    private CompletableFuture<WeatherSnapshot> pendingWeather;
+    private CompletableFuture<WeatherSnapshot> pendingCellWeather;
+    private SpeedEvaluationPipeline pipeline;
+    private DecisionHistoryAdapter historyAdapter;
+    private DecisionJournal decisionJournal;
+    private final SolarCalculator solarCalculator = new SolarCalculator();
+    private double lastLatitude = OpenMeteoWeatherService.COMODORO_LATITUDE;
+    private double lastLongitude = OpenMeteoWeatherService.COMODORO_LONGITUDE;
+    private LocationManager locationManager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flushPipeline = () -> pipeline.flush(System.currentTimeMillis());
+
+    // LocationListener only gained default methods in API 30, so all of them are implemented here.
+    private final LocationListener locationListener = new LocationListener() {
+        @Override
+        public void onLocationChanged(@NonNull Location location) {
+            lastLatitude = location.getLatitude();
+            lastLongitude = location.getLongitude();
+            pipeline.onLocation(location.getLatitude(), location.getLongitude(), System.currentTimeMillis());
+        }
+
+        @Override
+        public void onStatusChanged(String provider, int status, Bundle extras) {
+        }
+
+        @Override
+        public void onProviderEnabled(@NonNull String provider) {
+        }
+
+        @Override
+        public void onProviderDisabled(@NonNull String provider) {
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -47,12 +116,194 @@ public class DriverDashboardActivity extends AppCompatActivity {
         binding = ActivityDriverDashboardBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        settingsStore = new SettingsStore(this);
-        ruleEngine = new SpeedRuleEngine();
-        weatherService = new OpenMeteoWeatherService();
+        ruleEngine = SharedSpeedEngine.get(this);
+        ruleSetEngine = loadRuleSet();
+        decisionJournal = openDecisionJournal();
+        openMeteoService = new OpenMeteoWeatherService(MainLooperDispatcher.get());
+        weatherService = createWeatherService(openMeteoService);
+        locationManager = (LocationManager) getSystemService(LOCATION_SERVICE);
 
+        setupHistory();
+        setupPipeline();
         setupSpinner();
+        setupTimeOfDay();
         setupRecalculateButton();
+        setupMetrics();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        SpeedConfig config = ruleEngine.getConfig();
+        pipeline.setAdminBounds(config.getBaseSpeed(), config.getMinAllowedSpeed(), config.getMaxAllowedSpeed(),
+                System.currentTimeMillis());
+        scheduleFlush();
+        startLocationUpdates();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        locationManager.removeUpdates(locationListener);
+    }
+
+    /**
+     * Rules pushed to the device replace the built-in penalties without a new APK.
+     *
+     * @return the engine for the rules file, or null to use the built-in rules
+     */
+    private RuleSetSpeedEngine loadRuleSet() {
+        File rulesFile = new File(getFilesDir(), SPEED_RULES_FILE);
+        if (!rulesFile.exists()) {
+            return null;
+        }
+        try {
+            RuleSetSpeedEngine engine = new RuleSetSpeedEngine();
+            engine.load(rulesFile);
+            return engine;
+        } catch (IOException | IllegalArgumentException e) {
+            Log.e(TAG, "Invalid speed rules, using built-in rules", e);
+            return null;
+        }
+    }
+
+    private DecisionJournal openDecisionJournal() {
+        try {
+            return new DecisionJournal(new File(getFilesDir(), DECISION_JOURNAL_DIR));
+        } catch (IOException e) {
+            Log.e(TAG, "Decision journal unavailable", e);
+            return null;
+        }
+    }
+
+    /**
+     * Debug builds collect metrics. Tapping the debug text shows the current snapshot, a long
+     * press writes it to the app's external files directory.
+     */
+    private void setupMetrics() {
+        Metrics.setEnabled((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
+        if (!Metrics.isEnabled()) {
+            return;
+        }
+        binding.textDebug.setOnClickListener(v -> binding.textDebug.setText(Metrics.snapshot().toString()));
+        binding.textDebug.setOnLongClickListener(v -> {
+            exportMetrics();
+            return true;
+        });
+    }
+
+    private void exportMetrics() {
+        MetricsSnapshot snapshot = Metrics.snapshot();
+        File directory = getExternalFilesDir(null);
+        if (directory == null) {
+            directory = getFilesDir();
+        }
+        File file = new File(directory, "metrics-" + snapshot.getTakenAtMillis() + ".txt");
+        try (Writer writer = new FileWriter(file)) {
+            snapshot.writeTo(writer);
+            Toast.makeText(this, getString(R.string.metrics_exported, file.getAbsolutePath()),
+                    Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Log.e(TAG, "Metrics export failed", e);
+            Toast.makeText(this, R.string.metrics_export_failed, Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void setupHistory() {
+        historyAdapter = new DecisionHistoryAdapter(new DecisionHistory(HISTORY_CAPACITY));
+        binding.historyList.setLayoutManager(new LinearLayoutManager(this));
+        binding.historyList.setAdapter(historyAdapter);
+    }
+
+    private void setupPipeline() {
+        // Same rules as computeSpeed, so live and manual decisions never come from different engines.
+        pipeline = new SpeedEvaluationPipeline(ruleSetEngine != null ? ruleSetEngine : ruleEngine,
+                PIPELINE_INTERVAL_MILLIS);
+        byte mode = ruleSetEngine != null ? DecisionJournal.MODE_RULE_SET : DecisionJournal.MODE_BUCKET;
+        // Every input is delivered on the main thread, so decisions arrive there too.
+        pipeline.subscribe((decision, settings, weather) -> {
+            if (binding != null) {
+                recordDecision(settings, weather, decision, mode);
+                updateSpeedDisplay(decision);
+            }
+        });
+        pipeline.setCellChangeListener((cellKey, latitude, longitude) -> fetchCellWeather(latitude, longitude));
+    }
+
+    private void startLocationUpdates() {
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
+                != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this,
+                    new String[]{Manifest.permission.ACCESS_FINE_LOCATION}, LOCATION_PERMISSION_REQUEST);
+            return;
+        }
+        if (!locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER)) {
+            return;
+        }
+        try {
+            locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, LOCATION_INTERVAL_MILLIS, 0f,
+                    locationListener, Looper.getMainLooper());
+        } catch (SecurityException e) {
+            Log.e(TAG, "Location updates unavailable", e);
+        }
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions,
+                                           @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode != LOCATION_PERMISSION_REQUEST) {
+            return;
+        }
+        if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+            startLocationUpdates();
+        } else {
+            Toast.makeText(this, R.string.location_permission_denied, Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void fetchCellWeather(double latitude, double longitude) {
+        if (pendingCellWeather != null) {
+            pendingCellWeather.cancel(true);
+        }
+        pendingCellWeather = weatherService.getCurrent(latitude, longitude, WEATHER_REQUEST_OPTIONS);
+        pendingCellWeather.whenComplete((snapshot, error) -> mainHandler.post(() -> {
+            if (binding == null) {
+                return;
+            }
+            WeatherSnapshot weather = snapshot;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                if (cause instanceof CancellationException) {
+                    // Superseded by the fetch for a newer cell.
+                    return;
+                }
+                Log.w(TAG, "Weather fetch for new cell failed", cause);
+                // The previous cell's weather must not carry over into this one.
+                weather = storedWeather(latitude, longitude);
+            }
+            updateWeatherDisplay(weather);
+            pipeline.onWeather(weather, System.currentTimeMillis());
+        }));
+    }
+
+    /**
+     * Inputs changed inside the throttle interval are evaluated by a flush once it has passed.
+     */
+    private void scheduleFlush() {
+        mainHandler.removeCallbacks(flushPipeline);
+        mainHandler.postDelayed(flushPipeline, PIPELINE_INTERVAL_MILLIS);
+    }
+
+    private WeatherService createWeatherService(WeatherService network) {
+        try {
+            weatherStore = new WeatherSnapshotStore(new File(getFilesDir(), WEATHER_STORE_FILE));
+            network = new PersistentWeatherService(network, weatherStore);
+        } catch (IOException e) {
+            Log.e(TAG, "Offline weather store unavailable", e);
+        }
+        return new CachingWeatherService(new CoalescingWeatherService(network));
     }
 
     private void setupSpinner() {
@@ -63,6 +314,31 @@ public class DriverDashboardActivity extends AppCompatActivity {
         );
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         binding.spinnerRoad.setAdapter(adapter);
+        binding.spinnerRoad.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                pipeline.onRoadType(position == 0 ? RoadType.ASPHALT : RoadType.GRAVEL,
+                        System.currentTimeMillis());
+                scheduleFlush();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+    }
+
+    private void setupTimeOfDay() {
+        binding.groupTime.setOnCheckedChangeListener((group, checkedId) -> {
+            long now = System.currentTimeMillis();
+            if (checkedId == R.id.radio_auto) {
+                pipeline.setSolarCalculator(solarCalculator, now);
+            } else {
+                pipeline.setSolarCalculator(null, now);
+                pipeline.onTimeOfDay(checkedId == R.id.radio_day ? TimeOfDay.DAY : TimeOfDay.NIGHT, now);
+            }
+            scheduleFlush();
+        });
     }
 
     private void setupRecalculateButton() {
@@ -74,66 +350,107 @@ public class DriverDashboardActivity extends AppCompatActivity {
         binding.buttonRecalculate.setEnabled(false);
 
         if (binding.switchOfflineWeather.isChecked()) {
-            WeatherSnapshot offlineWeather = new WeatherSnapshot(15.0, 0.0, WeatherType.CLEAR);
+            WeatherSnapshot offlineWeather = storedWeather();
             updateWeatherDisplay(offlineWeather);
             computeSpeed(offlineWeather);
         } else {
-            weatherService.getCurrentAsyncForComodoro(new WeatherCallback() {
-                @Override
-                public void onSuccess(WeatherSnapshot snapshot) {
+            pendingWeather = weatherService.getCurrent(lastLatitude, lastLongitude, WEATHER_REQUEST_OPTIONS);
+            pendingWeather.whenComplete((snapshot, error) -> mainHandler.post(() -> {
+                if (binding == null) {
+                    return;
+                }
+                if (error != null) {
+                    onWeatherError(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                } else {
                     updateWeatherDisplay(snapshot);
                     computeSpeed(snapshot);
                 }
+            }));
+        }
+    }
 
-                @Override
-                public void onError(Exception e) {
-                    Log.e(TAG, "Weather fetch failed", e);
-                    Toast.makeText(DriverDashboardActivity.this,
-                            getString(R.string.weather_error, e.getMessage()), Toast.LENGTH_SHORT).show();
+    private WeatherSnapshot storedWeather() {
+        return storedWeather(lastLatitude, lastLongitude);
+    }
 
-                    WeatherSnapshot fallback = new WeatherSnapshot(15.0, 0.0, WeatherType.CLEAR);
-                    updateWeatherDisplay(fallback);
-                    computeSpeed(fallback);
-                }
-            });
+    /**
+     * Newest stored snapshot for the cell, or {@link WeatherSnapshot#WORST_CASE} if none is recent
+     * enough. Missing weather must never lift the limit, so there is no clear-weather default.
+     */
+    private WeatherSnapshot storedWeather(double latitude, double longitude) {
+        WeatherSnapshot stored = null;
+        if (weatherStore != null) {
+            stored = weatherStore.find(GridCell.keyOf(latitude, longitude),
+                    PersistentWeatherService.DEFAULT_MAX_AGE_MILLIS, System.currentTimeMillis());
         }
+        return stored != null ? stored : WeatherSnapshot.WORST_CASE;
+    }
+
+    private void onWeatherError(Throwable e) {
+        Log.e(TAG, "Weather fetch failed", e);
+        Toast.makeText(DriverDashboardActivity.this,
+                getString(R.string.weather_error, e.getMessage()), Toast.LENGTH_SHORT).show();
+
+        WeatherSnapshot fallback = storedWeather();
+        updateWeatherDisplay(fallback);
+        computeSpeed(fallback);
     }
 
     private void updateWeatherDisplay(WeatherSnapshot weather) {
+        if (weather == WeatherSnapshot.WORST_CASE) {
+            binding.textTemp.setText(R.string.weather_unavailable);
+            binding.textPrecip.setText(R.string.weather_assumed_worst_case);
+            return;
+        }
         binding.textTemp.setText(getString(R.string.temperature_value, weather.getTemperatureCelsius()));
         binding.textPrecip.setText(getString(R.string.precipitation_value, weather.getPrecipitationMm()));
     }
 
     private void computeSpeed(WeatherSnapshot weather) {
-        RoadType roadType = binding.spinnerRoad.getSelectedItemPosition() == 0
-                ? RoadType.ASPHALT
-                : RoadType.GRAVEL;
-
-        TimeOfDay timeOfDay = binding.radioDay.isChecked()
-                ? TimeOfDay.DAY
-                : TimeOfDay.NIGHT;
-
-        int minSpeed = settingsStore.getMin();
-        int maxSpeed = settingsStore.getMax();
-        int baseSpeed = settingsStore.getBase();
-
-        DriverSettings settings = new DriverSettings.Builder()
-                .withRoadType(roadType)
-                .withTimeOfDay(timeOfDay)
-                .withMinAllowedSpeed(minSpeed)
-                .withMaxAllowedSpeed(maxSpeed)
-                .withBaseSpeed(baseSpeed)
-                .build();
+        DriverSettings settings = currentSettings();
 
-        SpeedDecision decision = ruleEngine.computeMaxSpeed(settings, weather);
+        SpeedDecision decision = ruleSetEngine != null
+                ? ruleSetEngine.computeMaxSpeed(settings, weather)
+                : ruleEngine.computeMaxSpeedCompiled(settings, weather);
 
+        recordDecision(settings, weather, decision,
+                ruleSetEngine != null ? DecisionJournal.MODE_RULE_SET : DecisionJournal.MODE_BUCKET);
         updateSpeedDisplay(decision);
 
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
+        mainHandler.postDelayed(() -> {
             binding.buttonRecalculate.setEnabled(true);
         }, 600);
     }
 
+    private DriverSettings currentSettings() {
+        RoadType roadType = binding.spinnerRoad.getSelectedItemPosition() == 0
+                ? RoadType.ASPHALT
+                : RoadType.GRAVEL;
+
+        DriverSettings.Builder builder = new DriverSettings.Builder()
+                .withRoadType(roadType)
+                .withConfig(ruleEngine.getConfig());
+        if (binding.radioAuto.isChecked()) {
+            builder.withSolarTimeOfDay(solarCalculator, lastLatitude, lastLongitude, System.currentTimeMillis());
+        } else {
+            builder.withTimeOfDay(binding.radioDay.isChecked() ? TimeOfDay.DAY : TimeOfDay.NIGHT);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Queues the decision with the exact inputs it was computed from for the audit journal; the
+     * write itself happens off the main thread.
+     */
+    private void recordDecision(DriverSettings settings, WeatherSnapshot weather, SpeedDecision decision,
+                                byte mode) {
+        if (decisionJournal != null) {
+            decisionJournal.append(System.currentTimeMillis(), lastLatitude, lastLongitude, settings,
+                    weather, decision, mode);
+        }
+    }
+
     private void updateSpeedDisplay(SpeedDecision decision) {
         int currentSpeed = 0;
         try {
@@ -166,68 +483,39 @@ public class DriverDashboardActivity extends AppCompatActivity {
     }
 
     private void addHistoryEntry(SpeedDecision decision) {
-        LinearLayout historyCard = new LinearLayout(this);
-        historyCard.setOrientation(LinearLayout.VERTICAL);
-
-        LinearLayout.LayoutParams cardParams = new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                ViewGroup.LayoutParams.WRAP_CONTENT
-        );
-        int marginPx = (int) (8 * getResources().getDisplayMetrics().density);
-        cardParams.setMargins(0, 0, 0, marginPx);
-        historyCard.setLayoutParams(cardParams);
-
-        int paddingPx = (int) (12 * getResources().getDisplayMetrics().density);
-        historyCard.setPadding(paddingPx, paddingPx, paddingPx, paddingPx);
-        historyCard.setBackgroundColor(ContextCompat.getColor(this, R.color.color_surface));
-        historyCard.setElevation(4 * getResources().getDisplayMetrics().density);
-
-        TextView timestampView = new TextView(this);
-        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss", Locale.US);
-        timestampView.setText(timeFormat.format(new Date()));
-        timestampView.setTextColor(ContextCompat.getColor(this, R.color.color_on_surface));
-        timestampView.setTextSize(12);
-        timestampView.setTypeface(null, Typeface.BOLD);
-
-        TextView speedView = new TextView(this);
-        speedView.setText(getString(R.string.max_speed_format, decision.getMaxSpeedKmh()));
-        speedView.setTextColor(ContextCompat.getColor(this, R.color.color_primary));
-        speedView.setTextSize(16);
-        speedView.setTypeface(null, Typeface.BOLD);
-        LinearLayout.LayoutParams speedParams = new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.WRAP_CONTENT,
-                ViewGroup.LayoutParams.WRAP_CONTENT
-        );
-        speedParams.setMargins(0, (int) (4 * getResources().getDisplayMetrics().density), 0, 0);
-        speedView.setLayoutParams(speedParams);
-
-        TextView reasonView = new TextView(this);
-        reasonView.setText(decision.getReason());
-        reasonView.setTextColor(ContextCompat.getColor(this, R.color.color_on_surface));
-        reasonView.setTextSize(12);
-        reasonView.setMaxLines(1);
-        reasonView.setEllipsize(android.text.TextUtils.TruncateAt.END);
-        LinearLayout.LayoutParams reasonParams = new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.WRAP_CONTENT,
-                ViewGroup.LayoutParams.WRAP_CONTENT
-        );
-        reasonParams.setMargins(0, (int) (4 * getResources().getDisplayMetrics().density), 0, 0);
-        reasonView.setLayoutParams(reasonParams);
-
-        historyCard.addView(timestampView);
-        historyCard.addView(speedView);
-        historyCard.addView(reasonView);
-
-        binding.historyContainer.addView(historyCard, 0);
-
-        while (binding.historyContainer.getChildCount() > MAX_HISTORY_ENTRIES) {
-            binding.historyContainer.removeViewAt(binding.historyContainer.getChildCount() - 1);
+        LinearLayoutManager layoutManager = (LinearLayoutManager) binding.historyList.getLayoutManager();
+        boolean atTop = layoutManager.findFirstCompletelyVisibleItemPosition() <= 0;
+        historyAdapter.add(System.currentTimeMillis(), decision);
+        if (atTop) {
+            binding.historyList.scrollToPosition(0);
         }
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (pendingWeather != null) {
+            pendingWeather.cancel(true);
+        }
+        if (pendingCellWeather != null) {
+            pendingCellWeather.cancel(true);
+        }
+        mainHandler.removeCallbacksAndMessages(null);
+        openMeteoService.shutdown();
+        if (decisionJournal != null) {
+            try {
+                decisionJournal.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to close decision journal", e);
+            }
+        }
+        if (weatherStore != null) {
+            try {
+                weatherStore.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to close offline weather store", e);
+            }
+        }
         binding = null;
     }
 }
@@ -0,0 +1,29 @@
+package com.fleet.safety.ui;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.fleet.safety.data.remote.CallbackDispatcher;
+
+/**
+ * Android side of {@link CallbackDispatcher}: posts weather callbacks to the main looper so they
+ * can touch views directly.
+ */
+public final class MainLooperDispatcher implements CallbackDispatcher {
+
+    private static final MainLooperDispatcher INSTANCE = new MainLooperDispatcher();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private MainLooperDispatcher() {
+    }
+
+    public static MainLooperDispatcher get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void dispatch(Runnable callback) {
+        mainHandler.post(callback);
+    }
+}
@@ -3,8 +3,62 @@ package com.fleet.safety.ui;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Admin speed settings backed by SharedPreferences and cached in memory.
+ *
+ * The preferences are read once into an immutable {@link Snapshot}; getters never touch disk.
+ * Changes, whether saved here or written to the preferences by other code, replace the
+ * snapshot and are pushed to subscribers.
+ */
 public class SettingsStore {
 
+    public interface Listener {
+        void onSettingsChanged(Snapshot settings);
+    }
+
+    /**
+     * Immutable view of the three admin values.
+     */
+    public static final class Snapshot {
+        private final int min;
+        private final int max;
+        private final int base;
+
+        Snapshot(int min, int max, int base) {
+            this.min = min;
+            this.max = max;
+            this.base = base;
+        }
+
+        public int getMin() {
+            return min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        public int getBase() {
+            return base;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Snapshot)) return false;
+            Snapshot that = (Snapshot) o;
+            return min == that.min && max == that.max && base == that.base;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * min + max) + base;
+        }
+    }
+
     private static final String PREFS_NAME = "FleetSafetySettings";
     private static final String KEY_MIN_SPEED = "min_speed";
     private static final String KEY_MAX_SPEED = "max_speed";
@@ -14,30 +68,94 @@ public class SettingsStore {
     private static final int DEFAULT_MAX = 120;
     private static final int DEFAULT_BASE = 80;
 
+    private static SettingsStore instance;
+
     private final SharedPreferences prefs;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot;
+
+    // SharedPreferences only keeps a weak reference to its listeners.
+    private final SharedPreferences.OnSharedPreferenceChangeListener preferenceListener = (sharedPreferences, key) -> {
+        if (KEY_MIN_SPEED.equals(key) || KEY_MAX_SPEED.equals(key) || KEY_BASE_SPEED.equals(key)) {
+            update(read());
+        }
+    };
 
-    public SettingsStore(Context context) {
+    private SettingsStore(Context context) {
         this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.snapshot = read();
+        prefs.registerOnSharedPreferenceChangeListener(preferenceListener);
+    }
+
+    public static synchronized SettingsStore get(Context context) {
+        if (instance == null) {
+            instance = new SettingsStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public Snapshot getSettings() {
+        return snapshot;
     }
 
     public int getMin() {
-        return prefs.getInt(KEY_MIN_SPEED, DEFAULT_MIN);
+        return snapshot.getMin();
     }
 
     public int getMax() {
-        return prefs.getInt(KEY_MAX_SPEED, DEFAULT_MAX);
+        return snapshot.getMax();
     }
 
     public int getBase() {
-        return prefs.getInt(KEY_BASE_SPEED, DEFAULT_BASE);
+        return snapshot.getBase();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
     }
 
+    /**
+     * Validates and writes all three values in one editor transaction. The cache and the
+     * subscribers are updated right away; the disk write happens in the background.
+     *
+     * @throws IllegalArgumentException unless min <= base <= max
+     */
     public void save(int min, int max, int base) {
+        if (min > max) {
+            throw new IllegalArgumentException("Min speed must be <= max speed");
+        }
+        if (base < min || base > max) {
+            throw new IllegalArgumentException("Base speed must be between min and max speed");
+        }
+
         prefs.edit()
                 .putInt(KEY_MIN_SPEED, min)
                 .putInt(KEY_MAX_SPEED, max)
                 .putInt(KEY_BASE_SPEED, base)
                 .apply();
+        update(new Snapshot(min, max, base));
+    }
+
+    private Snapshot read() {
+        return new Snapshot(prefs.getInt(KEY_MIN_SPEED, DEFAULT_MIN),
+                prefs.getInt(KEY_MAX_SPEED, DEFAULT_MAX),
+                prefs.getInt(KEY_BASE_SPEED, DEFAULT_BASE));
     }
-}
 
+    // The preference listener fires once per key of a save, so unchanged snapshots are dropped.
+    private void update(Snapshot updated) {
+        synchronized (this) {
+            if (updated.equals(snapshot)) {
+                return;
+            }
+            snapshot = updated;
+        }
+        for (Listener listener : listeners) {
+            listener.onSettingsChanged(updated);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.fleet.safety.ui;
+
+import android.content.Context;
+
+import com.fleet.safety.domain.SpeedRuleEngine;
+
+/**
+ * Process-wide SpeedRuleEngine, subscribed to {@link SettingsStore} so every settings change
+ * is published to it as a new config snapshot.
+ */
+public final class SharedSpeedEngine {
+
+    private static SpeedRuleEngine engine;
+
+    private SharedSpeedEngine() {
+    }
+
+    public static synchronized SpeedRuleEngine get(Context context) {
+        if (engine == null) {
+            SettingsStore store = SettingsStore.get(context);
+            SpeedRuleEngine created = new SpeedRuleEngine();
+            store.addListener(settings -> created.publishConfig(settings.getBase(), settings.getMin(),
+                    settings.getMax()));
+            SettingsStore.Snapshot settings = store.getSettings();
+            created.publishConfig(settings.getBase(), settings.getMin(), settings.getMax());
+            engine = created;
+        }
+        return engine;
+    }
+}
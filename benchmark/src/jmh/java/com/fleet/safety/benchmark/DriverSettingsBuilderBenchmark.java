@@ -0,0 +1,39 @@
+package com.fleet.safety.benchmark;
+
+import com.fleet.safety.domain.DriverSettings;
+import com.fleet.safety.domain.RoadType;
+import com.fleet.safety.domain.TimeOfDay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the cost of building DriverSettings, with and without admin bounds.
+ */
+@State(Scope.Thread)
+public class DriverSettingsBuilderBenchmark {
+
+    public int baseSpeed = 80;
+    public int minSpeed = 60;
+    public int maxSpeed = 120;
+
+    @Benchmark
+    public DriverSettings buildWithoutBounds() {
+        return DriverSettings.builder()
+                .withRoadType(RoadType.GRAVEL)
+                .withTimeOfDay(TimeOfDay.NIGHT)
+                .build();
+    }
+
+    @Benchmark
+    public DriverSettings buildWithBounds() {
+        return DriverSettings.builder()
+                .withRoadType(RoadType.GRAVEL)
+                .withTimeOfDay(TimeOfDay.NIGHT)
+                .withBaseSpeed(baseSpeed)
+                .withMinAllowedSpeed(minSpeed)
+                .withMaxAllowedSpeed(maxSpeed)
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.fleet.safety.benchmark;
+
+import com.fleet.safety.domain.DecisionDelta;
+import com.fleet.safety.domain.DriverSettings;
+import com.fleet.safety.domain.FleetRecomputeScheduler;
+import com.fleet.safety.domain.GridCell;
+import com.fleet.safety.domain.RoadType;
+import com.fleet.safety.domain.SpeedDecision;
+import com.fleet.safety.domain.SpeedRuleEngine;
+import com.fleet.safety.domain.TimeOfDay;
+import com.fleet.safety.domain.WeatherSnapshot;
+import com.fleet.safety.domain.WeatherType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cost of reacting to one cell's weather change: the incremental scheduler against
+ * re-evaluating the whole fleet, with every vehicle on the default bounds or each vehicle on
+ * one of a handful of admin bounds.
+ */
+@State(Scope.Thread)
+public class FleetRecomputeSchedulerBenchmark {
+
+    private static final WeatherSnapshot CLEAR = new WeatherSnapshot(12.0, 0.0, WeatherType.CLEAR);
+    private static final WeatherSnapshot RAIN = new WeatherSnapshot(12.0, 3.0, WeatherType.RAIN);
+
+    @Param({"10000", "100000"})
+    public int fleetSize;
+
+    @Param({"uniform", "mixed"})
+    public String bounds;
+
+    private SpeedRuleEngine engine;
+    private FleetRecomputeScheduler scheduler;
+    private DriverSettings[] settings;
+    private long[] cellKeys;
+    private WeatherSnapshot[] cellWeather;
+    private long changedCell;
+    private boolean raining;
+
+    @Setup
+    public void setUp() {
+        engine = new SpeedRuleEngine();
+        scheduler = new FleetRecomputeScheduler(engine, false);
+        settings = new DriverSettings[fleetSize];
+        cellKeys = new long[fleetSize];
+        cellWeather = new WeatherSnapshot[fleetSize];
+
+        // About 400 cells of 0.05 degrees, so each cell holds fleetSize / 400 vehicles.
+        Random random = new Random(42);
+        for (int i = 0; i < fleetSize; i++) {
+            double latitude = -46 + random.nextDouble();
+            double longitude = -68 + random.nextDouble();
+            DriverSettings.Builder builder = DriverSettings.builder()
+                    .withRoadType(random.nextInt(4) == 0 ? RoadType.GRAVEL : RoadType.ASPHALT)
+                    .withTimeOfDay(TimeOfDay.DAY);
+            if ("mixed".equals(bounds)) {
+                int profile = random.nextInt(8);
+                builder.withBaseSpeed(70 + 5 * profile)
+                        .withMinAllowedSpeed(40 + 5 * (profile % 3))
+                        .withMaxAllowedSpeed(100 + 10 * (profile % 4));
+            }
+            settings[i] = builder.build();
+            cellKeys[i] = GridCell.keyOf(latitude, longitude);
+            cellWeather[i] = CLEAR;
+            scheduler.updateVehicle("v" + i, latitude, longitude, settings[i]);
+            scheduler.onCellWeather(cellKeys[i], CLEAR);
+        }
+        scheduler.recompute();
+        changedCell = cellKeys[0];
+    }
+
+    @Benchmark
+    public List<DecisionDelta> incrementalRecompute() {
+        raining = !raining;
+        scheduler.onCellWeather(changedCell, raining ? RAIN : CLEAR);
+        return scheduler.recompute();
+    }
+
+    @Benchmark
+    public void fullFleetRecompute(Blackhole blackhole) {
+        raining = !raining;
+        WeatherSnapshot changed = raining ? RAIN : CLEAR;
+        for (int i = 0; i < fleetSize; i++) {
+            WeatherSnapshot weather = cellKeys[i] == changedCell ? changed : cellWeather[i];
+            SpeedDecision decision = engine.computeMaxSpeedCompiled(settings[i], weather);
+            blackhole.consume(decision);
+        }
+    }
+}
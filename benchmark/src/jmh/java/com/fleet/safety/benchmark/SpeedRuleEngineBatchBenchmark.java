@@ -0,0 +1,71 @@
+package com.fleet.safety.benchmark;
+
+import com.fleet.safety.domain.RoadType;
+import com.fleet.safety.domain.SpeedBatch;
+import com.fleet.safety.domain.SpeedRuleEngine;
+import com.fleet.safety.domain.TimeOfDay;
+import com.fleet.safety.domain.WeatherType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Measures the columnar batch entry point over a fleet with a random mix of enum combinations.
+ */
+@State(Scope.Thread)
+public class SpeedRuleEngineBatchBenchmark {
+
+    @Param({"1000", "100000"})
+    public int fleetSize;
+
+    @Param({"none", "admin"})
+    public String bounds;
+
+    private SpeedRuleEngine engine;
+    private SpeedBatch batch;
+    private int[] out;
+
+    @Setup
+    public void setUp() {
+        engine = new SpeedRuleEngine();
+
+        Random random = new Random(42);
+        int[] roads = new int[fleetSize];
+        int[] times = new int[fleetSize];
+        int[] weathers = new int[fleetSize];
+        int[] bases = new int[fleetSize];
+        int[] mins = null;
+        int[] maxs = null;
+
+        for (int i = 0; i < fleetSize; i++) {
+            roads[i] = random.nextInt(RoadType.values().length);
+            times[i] = random.nextInt(TimeOfDay.values().length);
+            weathers[i] = random.nextInt(WeatherType.values().length);
+            bases[i] = SpeedRuleEngine.UNSET;
+        }
+
+        if ("admin".equals(bounds)) {
+            mins = new int[fleetSize];
+            maxs = new int[fleetSize];
+            for (int i = 0; i < fleetSize; i++) {
+                bases[i] = 80;
+                mins[i] = 60;
+                maxs[i] = 120;
+            }
+        }
+
+        batch = new SpeedBatch(roads, times, weathers, bases, mins, maxs);
+        out = new int[fleetSize];
+    }
+
+    @Benchmark
+    public int[] computeMaxSpeedBatch() {
+        engine.computeMaxSpeedBatch(batch, out);
+        return out;
+    }
+}
@@ -0,0 +1,91 @@
+package com.fleet.safety.benchmark;
+
+import com.fleet.safety.domain.DriverSettings;
+import com.fleet.safety.domain.RoadType;
+import com.fleet.safety.domain.SpeedDecision;
+import com.fleet.safety.domain.SpeedRuleEngine;
+import com.fleet.safety.domain.TimeOfDay;
+import com.fleet.safety.domain.WeatherSnapshot;
+import com.fleet.safety.domain.WeatherType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures SpeedRuleEngine.computeMaxSpeed for every RoadType x TimeOfDay x WeatherType
+ * combination, with no admin bounds, one shared set of bounds, or bounds that differ from
+ * one call to the next as they do across a fleet.
+ */
+@State(Scope.Thread)
+public class SpeedRuleEngineBenchmark {
+
+    @Param({"ASPHALT", "GRAVEL"})
+    public RoadType roadType;
+
+    @Param({"DAY", "NIGHT"})
+    public TimeOfDay timeOfDay;
+
+    @Param({"CLEAR", "RAIN", "SNOW", "ICE"})
+    public WeatherType weatherType;
+
+    @Param({"none", "admin", "mixed"})
+    public String bounds;
+
+    /** Distinct admin bounds cycled through by the "mixed" case; a power of two. */
+    private static final int MIXED_BOUNDS = 8;
+
+    private SpeedRuleEngine engine;
+    private DriverSettings[] settings;
+    private int next;
+    private WeatherSnapshot weather;
+
+    @Setup
+    public void setUp() {
+        engine = new SpeedRuleEngine();
+
+        settings = new DriverSettings["mixed".equals(bounds) ? MIXED_BOUNDS : 1];
+        for (int i = 0; i < settings.length; i++) {
+            DriverSettings.Builder builder = DriverSettings.builder()
+                    .withRoadType(roadType)
+                    .withTimeOfDay(timeOfDay);
+            if ("admin".equals(bounds)) {
+                builder.withBaseSpeed(80)
+                        .withMinAllowedSpeed(60)
+                        .withMaxAllowedSpeed(120);
+            } else if ("mixed".equals(bounds)) {
+                builder.withBaseSpeed(70 + 5 * i)
+                        .withMinAllowedSpeed(40 + 5 * (i % 3))
+                        .withMaxAllowedSpeed(100 + 10 * (i % 4));
+            }
+            settings[i] = builder.build();
+        }
+        weather = new WeatherSnapshot(5.0, 1.2, weatherType);
+    }
+
+    private DriverSettings nextSettings() {
+        return settings[next++ & (settings.length - 1)];
+    }
+
+    @Benchmark
+    public SpeedDecision computeMaxSpeed() {
+        return engine.computeMaxSpeed(nextSettings(), weather);
+    }
+
+    @Benchmark
+    public String computeMaxSpeedWithReason() {
+        return engine.computeMaxSpeed(nextSettings(), weather).getReason();
+    }
+
+    @Benchmark
+    public SpeedDecision computeMaxSpeedCompiled() {
+        return engine.computeMaxSpeedCompiled(nextSettings(), weather);
+    }
+
+    @Benchmark
+    public SpeedDecision computeMaxSpeedGraded() {
+        return engine.computeMaxSpeedGraded(nextSettings(), weather);
+    }
+}
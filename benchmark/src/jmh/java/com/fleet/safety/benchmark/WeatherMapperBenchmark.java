@@ -0,0 +1,55 @@
+package com.fleet.safety.benchmark;
+
+import com.fleet.safety.data.remote.WeatherMapper;
+import com.fleet.safety.domain.WeatherSnapshot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures WeatherMapper.mapFrom on inputs that land in each WeatherType bucket.
+ */
+@State(Scope.Thread)
+public class WeatherMapperBenchmark {
+
+    @Param({"CLEAR", "RAIN", "SNOW", "ICE"})
+    public String expected;
+
+    private double temperatureCelsius;
+    private double precipitationMm;
+    private int weatherCode;
+
+    @Setup
+    public void setUp() {
+        switch (expected) {
+            case "RAIN":
+                temperatureCelsius = 8.0;
+                precipitationMm = 2.5;
+                weatherCode = 61;
+                break;
+            case "SNOW":
+                temperatureCelsius = 1.0;
+                precipitationMm = 0.8;
+                weatherCode = 73;
+                break;
+            case "ICE":
+                temperatureCelsius = -3.0;
+                precipitationMm = 0.0;
+                weatherCode = 3;
+                break;
+            default:
+                temperatureCelsius = 18.0;
+                precipitationMm = 0.0;
+                weatherCode = 0;
+                break;
+        }
+    }
+
+    @Benchmark
+    public WeatherSnapshot mapFrom() {
+        return WeatherMapper.mapFrom(temperatureCelsius, precipitationMm, weatherCode);
+    }
+}
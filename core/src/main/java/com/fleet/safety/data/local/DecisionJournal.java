@@ -0,0 +1,366 @@
+package com.fleet.safety.data.local;
+
+import com.fleet.safety.domain.CompiledRuleSet;
+import com.fleet.safety.domain.DriverSettings;
+import com.fleet.safety.domain.SpeedDecision;
+import com.fleet.safety.domain.SpeedRuleEngine;
+import com.fleet.safety.domain.WeatherSnapshot;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Append-only binary journal of speed decisions and the inputs that produced them, for audits
+ * and for replaying a shift through the rule engine (see {@link DecisionJournalReplay}).
+ *
+ * {@link #append} only copies the record into an in-memory buffer. A writer thread swaps that
+ * buffer for a spare one (double buffering) and writes the whole group with one write and one
+ * fsync, either every flushIntervalMillis or as soon as the buffer is half full. A producer only
+ * waits if it fills the buffer faster than the writer can empty it.
+ *
+ * Records go to numbered segment files in one directory. A new segment is started when the
+ * current one reaches maxSegmentBytes and on every open, so a torn tail from a crash is never
+ * appended to. The oldest segments are deleted to keep the directory under maxTotalBytes.
+ *
+ * Segment layout: 16-byte header (magic "FSDJ", version, record size, reserved) followed by
+ * 72-byte records: timestamp (long), latitude, longitude, temperature, precipitation (double),
+ * base, min, max speed (int, UNSET when absent), resulting speed (int), road, time of day,
+ * weather ordinals and evaluation mode (byte), rule-set version and fingerprint (int, 0 unless
+ * the decision came from a rule set), record marker (int).
+ */
+public class DecisionJournal implements Closeable {
+
+    /** Decision from SpeedRuleEngine.computeMaxSpeed or its compiled table. */
+    public static final byte MODE_BUCKET = 0;
+    /** Decision from SpeedRuleEngine.computeMaxSpeedGraded. */
+    public static final byte MODE_GRADED = 1;
+    /** Decision from a rule set; replayed only against the rule set with the recorded fingerprint. */
+    public static final byte MODE_RULE_SET = 2;
+
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 1024 * 1024;
+    public static final long DEFAULT_MAX_TOTAL_BYTES = 32 * 1024 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 500;
+
+    static final int MAGIC = 0x4653444A; // "FSDJ"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 72;
+    static final int RECORD_MARKER = 0x5245434F; // "RECO"
+
+    static final int OFFSET_TIMESTAMP = 0;
+    static final int OFFSET_LATITUDE = 8;
+    static final int OFFSET_LONGITUDE = 16;
+    static final int OFFSET_TEMPERATURE = 24;
+    static final int OFFSET_PRECIPITATION = 32;
+    static final int OFFSET_BASE = 40;
+    static final int OFFSET_MIN = 44;
+    static final int OFFSET_MAX = 48;
+    static final int OFFSET_SPEED = 52;
+    static final int OFFSET_ROAD = 56;
+    static final int OFFSET_TIME = 57;
+    static final int OFFSET_WEATHER = 58;
+    static final int OFFSET_MODE = 59;
+    static final int OFFSET_RULE_SET_VERSION = 60;
+    static final int OFFSET_RULE_SET_FINGERPRINT = 64;
+    static final int OFFSET_MARKER = 68;
+
+    static final String SEGMENT_PREFIX = "decisions-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final int BUFFER_RECORDS = 256;
+
+    private final File directory;
+    private final long maxSegmentBytes;
+    private final long maxTotalBytes;
+    private final long flushIntervalMillis;
+    private final Thread writer;
+
+    private final Object lock = new Object();
+    private ByteBuffer filling = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+    private long appended;
+    private long written;
+    private boolean flushRequested;
+    private boolean closed;
+    private IOException failure;
+
+    // Only touched by the writer thread.
+    private FileChannel channel;
+    private long segmentSize;
+    private int segmentNumber;
+
+    public DecisionJournal(File directory) throws IOException {
+        this(directory, DEFAULT_MAX_SEGMENT_BYTES, DEFAULT_MAX_TOTAL_BYTES, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    public DecisionJournal(File directory, long maxSegmentBytes, long maxTotalBytes, long flushIntervalMillis)
+            throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Journal directory cannot be null");
+        }
+        if (maxSegmentBytes < HEADER_SIZE + RECORD_SIZE || maxTotalBytes < maxSegmentBytes
+                || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Segment size must fit a record, total size must fit a segment"
+                    + " and the flush interval must be positive");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create journal directory " + directory);
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxTotalBytes = maxTotalBytes;
+        this.flushIntervalMillis = flushIntervalMillis;
+
+        File[] segments = listSegments(directory);
+        segmentNumber = segments.length > 0 ? segmentNumberOf(segments[segments.length - 1]) : 0;
+        openNextSegment();
+
+        writer = new Thread(this::runWriter, "DecisionJournal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues one decision. Returns immediately unless the write buffer is full.
+     *
+     * @param weather the weather the decision was evaluated with; pass
+     *                {@link WeatherSnapshot#WORST_CASE} rather than null when it was unknown
+     * @return false if the journal is closed or the writer has failed, in which case nothing is recorded
+     * @throws IllegalArgumentException if settings, weather or decision is null
+     */
+    public boolean append(long epochMillis, double latitude, double longitude, DriverSettings settings,
+                          WeatherSnapshot weather, SpeedDecision decision, byte mode) {
+        if (settings == null || weather == null || decision == null) {
+            throw new IllegalArgumentException("Settings, weather and decision cannot be null");
+        }
+        CompiledRuleSet ruleSet = decision.getRuleSet();
+        synchronized (lock) {
+            while (!closed && failure == null && filling.remaining() < RECORD_SIZE) {
+                lock.notifyAll();
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (closed || failure != null) {
+                return false;
+            }
+
+            int at = filling.position();
+            filling.putLong(at + OFFSET_TIMESTAMP, epochMillis)
+                    .putDouble(at + OFFSET_LATITUDE, latitude)
+                    .putDouble(at + OFFSET_LONGITUDE, longitude)
+                    .putDouble(at + OFFSET_TEMPERATURE, weather.getTemperatureCelsius())
+                    .putDouble(at + OFFSET_PRECIPITATION, weather.getPrecipitationMm())
+                    .putInt(at + OFFSET_BASE, unboxed(settings.getBaseSpeed()))
+                    .putInt(at + OFFSET_MIN, unboxed(settings.getMinAllowedSpeed()))
+                    .putInt(at + OFFSET_MAX, unboxed(settings.getMaxAllowedSpeed()))
+                    .putInt(at + OFFSET_SPEED, decision.getMaxSpeedKmh())
+                    .put(at + OFFSET_ROAD, (byte) settings.getRoadType().ordinal())
+                    .put(at + OFFSET_TIME, (byte) settings.getTimeOfDay().ordinal())
+                    .put(at + OFFSET_WEATHER, (byte) weather.getWeatherType().ordinal())
+                    .put(at + OFFSET_MODE, mode)
+                    .putInt(at + OFFSET_RULE_SET_VERSION, ruleSet != null ? ruleSet.getVersion() : 0)
+                    .putInt(at + OFFSET_RULE_SET_FINGERPRINT, ruleSet != null ? ruleSet.getFingerprint() : 0)
+                    .putInt(at + OFFSET_MARKER, RECORD_MARKER);
+            filling.position(at + RECORD_SIZE);
+            appended++;
+
+            if (filling.position() >= filling.capacity() / 2) {
+                lock.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Blocks until every record appended so far is written and synced.
+     *
+     * @throws IOException if the writer failed
+     */
+    public void flush() throws IOException {
+        synchronized (lock) {
+            long target = appended;
+            flushRequested = true;
+            lock.notifyAll();
+            while (written < target && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while flushing the decision journal", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Writes the pending records, stops the writer and closes the current segment.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    private void runWriter() {
+        while (true) {
+            ByteBuffer batch;
+            long batchEnd;
+            synchronized (lock) {
+                try {
+                    while (!closed && filling.position() == 0) {
+                        lock.wait();
+                    }
+                    if (!closed && !flushRequested && filling.position() < filling.capacity() / 2) {
+                        lock.wait(flushIntervalMillis);
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+                if (filling.position() == 0) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                batch = filling;
+                filling = spare;
+                spare = null;
+                batchEnd = appended;
+                flushRequested = false;
+                lock.notifyAll();
+            }
+
+            IOException error = null;
+            batch.flip();
+            try {
+                writeBatch(batch);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (lock) {
+                batch.clear();
+                spare = batch;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    written = batchEnd;
+                }
+                lock.notifyAll();
+                if (error != null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void writeBatch(ByteBuffer batch) throws IOException {
+        int end = batch.limit();
+        while (batch.position() < end) {
+            if (segmentSize + RECORD_SIZE > maxSegmentBytes) {
+                openNextSegment();
+            }
+            int room = (int) ((maxSegmentBytes - segmentSize) / RECORD_SIZE) * RECORD_SIZE;
+            batch.limit(Math.min(end, batch.position() + room));
+            while (batch.hasRemaining()) {
+                segmentSize += channel.write(batch);
+            }
+            batch.limit(end);
+        }
+        channel.force(false);
+    }
+
+    private void openNextSegment() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+        segmentNumber++;
+        File segment = new File(directory, String.format(Locale.US, "%s%08d%s",
+                SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+        channel = new RandomAccessFile(segment, "rw").getChannel();
+        channel.truncate(0);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        segmentSize = HEADER_SIZE;
+        deleteOldSegments(segment);
+    }
+
+    private void deleteOldSegments(File current) {
+        File[] segments = listSegments(directory);
+        long total = 0;
+        for (File segment : segments) {
+            total += segment.length();
+        }
+        for (int i = 0; i < segments.length && total + maxSegmentBytes > maxTotalBytes; i++) {
+            if (!segments[i].equals(current)) {
+                total -= segments[i].length();
+                segments[i].delete();
+            }
+        }
+    }
+
+    /**
+     * @return the segment files in the directory, oldest first
+     */
+    static File[] listSegments(File directory) {
+        File[] segments = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX)
+                && name.endsWith(SEGMENT_SUFFIX));
+        if (segments == null) {
+            return new File[0];
+        }
+        // Numbers are zero-padded, so name order is creation order.
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private static int segmentNumberOf(File segment) {
+        String name = segment.getName();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int unboxed(Integer value) {
+        return value != null ? value : SpeedRuleEngine.UNSET;
+    }
+}
@@ -0,0 +1,222 @@
+package com.fleet.safety.data.local;
+
+import com.fleet.safety.domain.DriverSettings;
+import com.fleet.safety.domain.RoadType;
+import com.fleet.safety.domain.SpeedRuleEngine;
+import com.fleet.safety.domain.TimeOfDay;
+import com.fleet.safety.domain.WeatherSnapshot;
+import com.fleet.safety.domain.WeatherType;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sequential cursor over the segments of a {@link DecisionJournal}, oldest record first.
+ *
+ * Segments are read in large chunks and records are decoded in place; the getters describe
+ * the current record and nothing is allocated per record unless toSettings/toWeather are
+ * called. A segment with a foreign header is skipped, and reading a segment stops at the
+ * first incomplete or unmarked record, which is where a crash would have cut it. A marked record
+ * with out-of-range enum ordinals is reported as corrupt by {@link #next()}.
+ */
+public class DecisionJournalReader implements Closeable {
+
+    private static final int CHUNK_RECORDS = 1024;
+    private static final RoadType[] ROAD_TYPES = RoadType.values();
+    private static final TimeOfDay[] TIMES_OF_DAY = TimeOfDay.values();
+    private static final WeatherType[] WEATHER_TYPES = WeatherType.values();
+
+    private final File[] segments;
+    private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_RECORDS * DecisionJournal.RECORD_SIZE);
+    private int nextSegment;
+    private File segment;
+    private FileChannel channel;
+    private int record;
+
+    /**
+     * Opens a reader over the segments present now. Flush or close the journal first to
+     * include the most recent records.
+     */
+    public DecisionJournalReader(File directory) {
+        this.segments = DecisionJournal.listSegments(directory);
+        chunk.limit(0);
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return false when every segment has been read
+     * @throws IOException if the next record is corrupt
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (chunk.remaining() >= DecisionJournal.RECORD_SIZE) {
+                int at = chunk.position();
+                if (chunk.getInt(at + DecisionJournal.OFFSET_MARKER) == DecisionJournal.RECORD_MARKER) {
+                    checkOrdinal(at + DecisionJournal.OFFSET_ROAD, ROAD_TYPES.length, "road type");
+                    checkOrdinal(at + DecisionJournal.OFFSET_TIME, TIMES_OF_DAY.length, "time of day");
+                    checkOrdinal(at + DecisionJournal.OFFSET_WEATHER, WEATHER_TYPES.length, "weather type");
+                    record = at;
+                    chunk.position(at + DecisionJournal.RECORD_SIZE);
+                    return true;
+                }
+                closeSegment();
+            } else if (channel != null) {
+                fillChunk();
+            } else if (!openNextSegment()) {
+                return false;
+            }
+        }
+    }
+
+    public long getTimestampMillis() {
+        return chunk.getLong(record + DecisionJournal.OFFSET_TIMESTAMP);
+    }
+
+    public double getLatitude() {
+        return chunk.getDouble(record + DecisionJournal.OFFSET_LATITUDE);
+    }
+
+    public double getLongitude() {
+        return chunk.getDouble(record + DecisionJournal.OFFSET_LONGITUDE);
+    }
+
+    public double getTemperatureCelsius() {
+        return chunk.getDouble(record + DecisionJournal.OFFSET_TEMPERATURE);
+    }
+
+    public double getPrecipitationMm() {
+        return chunk.getDouble(record + DecisionJournal.OFFSET_PRECIPITATION);
+    }
+
+    /**
+     * @return the recorded base speed, or {@link SpeedRuleEngine#UNSET}
+     */
+    public int getBaseSpeed() {
+        return chunk.getInt(record + DecisionJournal.OFFSET_BASE);
+    }
+
+    public int getMinAllowedSpeed() {
+        return chunk.getInt(record + DecisionJournal.OFFSET_MIN);
+    }
+
+    public int getMaxAllowedSpeed() {
+        return chunk.getInt(record + DecisionJournal.OFFSET_MAX);
+    }
+
+    public int getSpeedKmh() {
+        return chunk.getInt(record + DecisionJournal.OFFSET_SPEED);
+    }
+
+    public RoadType getRoadType() {
+        return ROAD_TYPES[chunk.get(record + DecisionJournal.OFFSET_ROAD)];
+    }
+
+    public TimeOfDay getTimeOfDay() {
+        return TIMES_OF_DAY[chunk.get(record + DecisionJournal.OFFSET_TIME)];
+    }
+
+    public WeatherType getWeatherType() {
+        return WEATHER_TYPES[chunk.get(record + DecisionJournal.OFFSET_WEATHER)];
+    }
+
+    public byte getMode() {
+        return chunk.get(record + DecisionJournal.OFFSET_MODE);
+    }
+
+    /**
+     * @return the version of the rule set that made the decision, or 0 if none did
+     */
+    public int getRuleSetVersion() {
+        return chunk.getInt(record + DecisionJournal.OFFSET_RULE_SET_VERSION);
+    }
+
+    /**
+     * @return the {@link com.fleet.safety.domain.CompiledRuleSet#getFingerprint() fingerprint}
+     * of the rule set that made the decision, or 0 if none did
+     */
+    public int getRuleSetFingerprint() {
+        return chunk.getInt(record + DecisionJournal.OFFSET_RULE_SET_FINGERPRINT);
+    }
+
+    public DriverSettings toSettings() {
+        return DriverSettings.builder()
+                .withRoadType(getRoadType())
+                .withTimeOfDay(getTimeOfDay())
+                .withBaseSpeed(boxed(getBaseSpeed()))
+                .withMinAllowedSpeed(boxed(getMinAllowedSpeed()))
+                .withMaxAllowedSpeed(boxed(getMaxAllowedSpeed()))
+                .build();
+    }
+
+    public WeatherSnapshot toWeather() {
+        return new WeatherSnapshot(getTemperatureCelsius(), getPrecipitationMm(), getWeatherType());
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+        nextSegment = segments.length;
+    }
+
+    private boolean openNextSegment() throws IOException {
+        while (nextSegment < segments.length) {
+            segment = segments[nextSegment++];
+            FileChannel candidate = new FileInputStream(segment).getChannel();
+            ByteBuffer header = ByteBuffer.allocate(DecisionJournal.HEADER_SIZE);
+            while (header.hasRemaining() && candidate.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            if (!header.hasRemaining() && header.getInt(0) == DecisionJournal.MAGIC
+                    && header.getInt(4) == DecisionJournal.VERSION
+                    && header.getInt(8) == DecisionJournal.RECORD_SIZE) {
+                channel = candidate;
+                return true;
+            }
+            candidate.close();
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next chunk of whole records from the current segment, closing the segment
+     * when no complete record is left.
+     */
+    private void fillChunk() throws IOException {
+        chunk.clear();
+        while (chunk.hasRemaining() && channel.read(chunk) >= 0) {
+            // fill the chunk or reach the end of the segment
+        }
+        int whole = chunk.position() - chunk.position() % DecisionJournal.RECORD_SIZE;
+        if (whole == 0) {
+            closeSegment();
+            return;
+        }
+        chunk.position(0);
+        chunk.limit(whole);
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        chunk.limit(0);
+    }
+
+    private void checkOrdinal(int offset, int count, String name) throws IOException {
+        int ordinal = chunk.get(offset);
+        if (ordinal < 0 || ordinal >= count) {
+            throw new IOException("Corrupt record in " + segment.getName() + ": " + name
+                    + " ordinal " + ordinal);
+        }
+    }
+
+    private static Integer boxed(int value) {
+        return value != SpeedRuleEngine.UNSET ? value : null;
+    }
+}
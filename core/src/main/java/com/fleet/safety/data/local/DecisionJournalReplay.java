@@ -0,0 +1,121 @@
+package com.fleet.safety.data.local;
+
+import com.fleet.safety.domain.CompiledRuleSet;
+import com.fleet.safety.domain.SpeedRuleEngine;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Re-runs every journaled decision through a SpeedRuleEngine, or for rule-set decisions through
+ * the given CompiledRuleSet, and checks that it produces the recorded speed.
+ */
+public final class DecisionJournalReplay {
+
+    public static final class Result {
+        private final long total;
+        private final long mismatched;
+        private final long skipped;
+        private final long firstMismatchMillis;
+
+        Result(long total, long mismatched, long skipped, long firstMismatchMillis) {
+            this.total = total;
+            this.mismatched = mismatched;
+            this.skipped = skipped;
+            this.firstMismatchMillis = firstMismatchMillis;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getMismatched() {
+            return mismatched;
+        }
+
+        /**
+         * @return rule-set decisions that could not be replayed because no rule set with the
+         * recorded version and fingerprint was given
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return timestamp of the first mismatching record, or -1 if every record matched
+         */
+        public long getFirstMismatchMillis() {
+            return firstMismatchMillis;
+        }
+
+        public boolean isConsistent() {
+            return mismatched == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "total=" + total +
+                    ", mismatched=" + mismatched +
+                    ", skipped=" + skipped +
+                    ", firstMismatchMillis=" + firstMismatchMillis +
+                    '}';
+        }
+    }
+
+    private DecisionJournalReplay() {
+    }
+
+    public static Result verify(File directory, SpeedRuleEngine engine) throws IOException {
+        return verify(directory, engine, null);
+    }
+
+    /**
+     * @param ruleSet rules to replay rule-set decisions with; records made with other rules,
+     *                or all of them if null, are counted as skipped
+     */
+    public static Result verify(File directory, SpeedRuleEngine engine, CompiledRuleSet ruleSet)
+            throws IOException {
+        long total = 0;
+        long mismatched = 0;
+        long skipped = 0;
+        long firstMismatchMillis = -1;
+
+        try (DecisionJournalReader reader = new DecisionJournalReader(directory)) {
+            while (reader.next()) {
+                total++;
+                int replayed;
+                switch (reader.getMode()) {
+                    case DecisionJournal.MODE_BUCKET:
+                        replayed = engine.computeMaxSpeed(reader.toSettings(), reader.toWeather()).getMaxSpeedKmh();
+                        break;
+                    case DecisionJournal.MODE_GRADED:
+                        replayed = engine.computeMaxSpeedGraded(reader.toSettings(), reader.toWeather())
+                                .getMaxSpeedKmh();
+                        break;
+                    case DecisionJournal.MODE_RULE_SET:
+                        if (ruleSet == null || ruleSet.getVersion() != reader.getRuleSetVersion()
+                                || ruleSet.getFingerprint() != reader.getRuleSetFingerprint()) {
+                            skipped++;
+                            continue;
+                        }
+                        replayed = ruleSet.computeSpeedKmh(reader.getRoadType().ordinal(),
+                                reader.getTimeOfDay().ordinal(), reader.getWeatherType().ordinal(),
+                                reader.getTemperatureCelsius(), reader.getPrecipitationMm(),
+                                reader.getBaseSpeed(), reader.getMinAllowedSpeed(), reader.getMaxAllowedSpeed());
+                        break;
+                    default:
+                        skipped++;
+                        continue;
+                }
+                if (replayed != reader.getSpeedKmh()) {
+                    if (mismatched == 0) {
+                        firstMismatchMillis = reader.getTimestampMillis();
+                    }
+                    mismatched++;
+                }
+            }
+        }
+        return new Result(total, mismatched, skipped, firstMismatchMillis);
+    }
+}
@@ -0,0 +1,136 @@
+package com.fleet.safety.data.local;
+
+import com.fleet.safety.data.remote.RouteForecastCallback;
+import com.fleet.safety.data.remote.WeatherBatchCallback;
+import com.fleet.safety.data.remote.WeatherCallback;
+import com.fleet.safety.data.remote.WeatherRequestOptions;
+import com.fleet.safety.data.remote.WeatherService;
+import com.fleet.safety.domain.GridCell;
+import com.fleet.safety.domain.RoutePoint;
+import com.fleet.safety.domain.WeatherSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * WeatherService decorator that records every fetched snapshot in a WeatherSnapshotStore and,
+ * when the delegate fails, answers from the store with the newest snapshot for the same grid
+ * cell that is at most maxAgeMillis old. The original error is reported only if no such
+ * snapshot exists. Stored snapshots keep their original fetch time
+ * ({@link WeatherSnapshot#getFetchedAtMillis()}), so caches above this service age them correctly.
+ */
+public class PersistentWeatherService implements WeatherService {
+
+    public static final long DEFAULT_MAX_AGE_MILLIS = 6 * 60 * 60 * 1000L;
+
+    private final WeatherService delegate;
+    private final WeatherSnapshotStore store;
+    private final long maxAgeMillis;
+    private final double cellDegrees;
+
+    public PersistentWeatherService(WeatherService delegate, WeatherSnapshotStore store) {
+        this(delegate, store, DEFAULT_MAX_AGE_MILLIS, GridCell.DEFAULT_CELL_DEGREES);
+    }
+
+    public PersistentWeatherService(WeatherService delegate, WeatherSnapshotStore store,
+                                    long maxAgeMillis, double cellDegrees) {
+        if (delegate == null || store == null) {
+            throw new IllegalArgumentException("Delegate weather service and store cannot be null");
+        }
+        if (maxAgeMillis <= 0 || cellDegrees <= 0) {
+            throw new IllegalArgumentException("Max age and cell size must be positive");
+        }
+        this.delegate = delegate;
+        this.store = store;
+        this.maxAgeMillis = maxAgeMillis;
+        this.cellDegrees = cellDegrees;
+    }
+
+    @Override
+    public void getCurrentAsync(double latitude, double longitude, WeatherCallback callback) {
+        long key = GridCell.keyOf(latitude, longitude, cellDegrees);
+        delegate.getCurrentAsync(latitude, longitude, new WeatherCallback() {
+            @Override
+            public void onSuccess(WeatherSnapshot snapshot) {
+                store.put(key, snapshot, System.currentTimeMillis());
+                callback.onSuccess(snapshot);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                WeatherSnapshot stored = store.find(key, maxAgeMillis, System.currentTimeMillis());
+                if (stored != null) {
+                    callback.onSuccess(stored);
+                } else {
+                    callback.onError(e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<WeatherSnapshot> getCurrent(double latitude, double longitude,
+                                                         WeatherRequestOptions options) {
+        long key = GridCell.keyOf(latitude, longitude, cellDegrees);
+        CompletableFuture<WeatherSnapshot> upstream = delegate.getCurrent(latitude, longitude, options);
+        CompletableFuture<WeatherSnapshot> result = upstream.handle((snapshot, error) -> {
+            if (error == null) {
+                store.put(key, snapshot, System.currentTimeMillis());
+                return snapshot;
+            }
+            WeatherSnapshot stored = upstream.isCancelled()
+                    ? null : store.find(key, maxAgeMillis, System.currentTimeMillis());
+            if (stored == null) {
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+            }
+            return stored;
+        });
+        result.whenComplete((snapshot, error) -> {
+            if (result.isCancelled()) {
+                upstream.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void getCurrentBatchAsync(double[] latitudes, double[] longitudes, WeatherBatchCallback callback) {
+        long[] keys = new long[latitudes.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = GridCell.keyOf(latitudes[i], longitudes[i], cellDegrees);
+        }
+
+        delegate.getCurrentBatchAsync(latitudes, longitudes, new WeatherBatchCallback() {
+            @Override
+            public void onSuccess(List<WeatherSnapshot> snapshots) {
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < keys.length; i++) {
+                    store.put(keys[i], snapshots.get(i), now);
+                }
+                callback.onSuccess(snapshots);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                long now = System.currentTimeMillis();
+                List<WeatherSnapshot> stored = new ArrayList<>(keys.length);
+                for (long key : keys) {
+                    WeatherSnapshot snapshot = store.find(key, maxAgeMillis, now);
+                    if (snapshot == null) {
+                        callback.onError(e);
+                        return;
+                    }
+                    stored.add(snapshot);
+                }
+                callback.onSuccess(stored);
+            }
+        });
+    }
+    @Override
+    public void prefetchRouteAsync(List<RoutePoint> route, RouteForecastCallback callback) {
+        delegate.prefetchRouteAsync(route, callback);
+    }
+
+}
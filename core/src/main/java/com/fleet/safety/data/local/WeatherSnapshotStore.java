@@ -0,0 +1,181 @@
+package com.fleet.safety.data.local;
+
+import com.fleet.safety.domain.WeatherSnapshot;
+import com.fleet.safety.domain.WeatherType;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Persistent store of the latest WeatherSnapshot per grid cell, kept in a memory-mapped file.
+ *
+ * The file is a small header followed by a fixed number of fixed-width records, addressed by
+ * hashing the cell key with a short linear probe. Reads and writes touch only the record
+ * involved, so nothing is parsed at startup and a fetch never rewrites the whole file. When
+ * every slot in a probe window is taken, the oldest record in the window is replaced.
+ *
+ * Record layout (40 bytes): cell key (long), fetched-at millis (long, 0 = empty slot),
+ * temperature (double), precipitation (double), WeatherType ordinal (int), padding (int).
+ */
+public class WeatherSnapshotStore implements Closeable {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final int MAGIC = 0x46535753; // "FSWS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 40;
+    private static final int PROBE_LIMIT = 8;
+
+    private static final int OFFSET_KEY = 0;
+    private static final int OFFSET_FETCHED_AT = 8;
+    private static final int OFFSET_TEMPERATURE = 16;
+    private static final int OFFSET_PRECIPITATION = 24;
+    private static final int OFFSET_WEATHER_TYPE = 32;
+
+    private static final WeatherType[] WEATHER_TYPES = WeatherType.values();
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    public WeatherSnapshotStore(File path) throws IOException {
+        this(path, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Opens the store, creating or resetting the file if it is missing, has another layout
+     * or another capacity.
+     */
+    public WeatherSnapshotStore(File path, int capacity) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.file = new RandomAccessFile(path, "rw");
+        this.channel = file.getChannel();
+
+        long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+        boolean valid = file.length() == size;
+        if (!valid) {
+            file.setLength(0);
+            file.setLength(size);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        if (!valid || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != capacity) {
+            for (int i = 0; i < size; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, capacity);
+            buffer.putInt(12, RECORD_SIZE);
+        }
+    }
+
+    /**
+     * Writes the snapshot for the cell, replacing any older one.
+     */
+    public synchronized void put(long cellKey, WeatherSnapshot snapshot, long fetchedAtMillis) {
+        int slot = slotFor(cellKey);
+        int offset = recordOffset(slot);
+
+        buffer.putLong(offset + OFFSET_FETCHED_AT, 0L);
+        buffer.putLong(offset + OFFSET_KEY, cellKey);
+        buffer.putDouble(offset + OFFSET_TEMPERATURE, snapshot.getTemperatureCelsius());
+        buffer.putDouble(offset + OFFSET_PRECIPITATION, snapshot.getPrecipitationMm());
+        buffer.putInt(offset + OFFSET_WEATHER_TYPE, snapshot.getWeatherType().ordinal());
+        // Written last so a torn write leaves an empty slot rather than a half-written record.
+        buffer.putLong(offset + OFFSET_FETCHED_AT, Math.max(1L, fetchedAtMillis));
+    }
+
+    /**
+     * @return the stored snapshot for the cell if it is at most maxAgeMillis old and intact, or
+     * null; the snapshot carries its original fetch time
+     */
+    public synchronized WeatherSnapshot find(long cellKey, long maxAgeMillis, long nowMillis) {
+        int home = home(cellKey);
+        for (int probe = 0; probe < PROBE_LIMIT; probe++) {
+            int offset = recordOffset((home + probe) % capacity);
+            long fetchedAt = buffer.getLong(offset + OFFSET_FETCHED_AT);
+            if (fetchedAt != 0 && buffer.getLong(offset + OFFSET_KEY) == cellKey) {
+                return nowMillis - fetchedAt <= maxAgeMillis ? read(offset, fetchedAt) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Flushes written records to storage.
+     */
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+        file.close();
+    }
+
+    /**
+     * Picks the slot for a write: the cell's existing slot, else the first empty slot in the
+     * probe window, else the oldest record in the window.
+     */
+    private int slotFor(long cellKey) {
+        int home = home(cellKey);
+        int emptySlot = -1;
+        int oldestSlot = home;
+        long oldestFetchedAt = Long.MAX_VALUE;
+
+        for (int probe = 0; probe < PROBE_LIMIT; probe++) {
+            int slot = (home + probe) % capacity;
+            int offset = recordOffset(slot);
+            long fetchedAt = buffer.getLong(offset + OFFSET_FETCHED_AT);
+            if (fetchedAt == 0) {
+                if (emptySlot < 0) {
+                    emptySlot = slot;
+                }
+                continue;
+            }
+            if (buffer.getLong(offset + OFFSET_KEY) == cellKey) {
+                return slot;
+            }
+            if (fetchedAt < oldestFetchedAt) {
+                oldestFetchedAt = fetchedAt;
+                oldestSlot = slot;
+            }
+        }
+        return emptySlot >= 0 ? emptySlot : oldestSlot;
+    }
+
+    /**
+     * @return the record's snapshot, or null if its weather type is corrupt, so callers fall back
+     * to worst-case weather instead of guessing
+     */
+    private WeatherSnapshot read(int offset, long fetchedAt) {
+        int ordinal = buffer.getInt(offset + OFFSET_WEATHER_TYPE);
+        if (ordinal < 0 || ordinal >= WEATHER_TYPES.length) {
+            return null;
+        }
+        return new WeatherSnapshot(buffer.getDouble(offset + OFFSET_TEMPERATURE),
+                buffer.getDouble(offset + OFFSET_PRECIPITATION), WEATHER_TYPES[ordinal], fetchedAt);
+    }
+
+    private int home(long cellKey) {
+        long h = cellKey * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) ((h & 0x7FFFFFFFL) % capacity);
+    }
+
+    private static int recordOffset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+}
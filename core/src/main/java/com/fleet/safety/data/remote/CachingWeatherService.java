@@ -0,0 +1,326 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.domain.GridCell;
+import com.fleet.safety.domain.RoutePoint;
+import com.fleet.safety.domain.WeatherSnapshot;
+import com.fleet.safety.metrics.Counter;
+import com.fleet.safety.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * WeatherService decorator that caches snapshots per grid cell.
+ *
+ * Entries younger than the TTL are served directly. Entries past the TTL but still inside the
+ * stale window are served immediately as well, while a single background refresh replaces them
+ * (stale-while-revalidate). Older entries are treated as misses. The cache keeps at most
+ * maxEntries cells and evicts the least recently used one. A snapshot that carries its original
+ * fetch time, such as one a {@code PersistentWeatherService} served from storage after a network
+ * error, is cached with that time, so an old snapshot is never served as fresh.
+ *
+ * Cache hits invoke the callback synchronously on the calling thread; misses are delivered
+ * however the delegate delivers them.
+ */
+public class CachingWeatherService implements WeatherService {
+
+    public static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000L;
+    public static final long DEFAULT_STALE_WINDOW_MILLIS = 50 * 60 * 1000L;
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private static final Counter HITS = Metrics.counter("weather.cache.hit");
+    private static final Counter STALE_HITS = Metrics.counter("weather.cache.stale");
+    private static final Counter MISSES = Metrics.counter("weather.cache.miss");
+
+    private final WeatherService delegate;
+    private final long ttlMillis;
+    private final long staleWindowMillis;
+    private final double cellDegrees;
+    private final Map<Long, CacheEntry> entries;
+
+    public CachingWeatherService(WeatherService delegate) {
+        this(delegate, DEFAULT_TTL_MILLIS, DEFAULT_STALE_WINDOW_MILLIS, DEFAULT_MAX_ENTRIES,
+                GridCell.DEFAULT_CELL_DEGREES);
+    }
+
+    /**
+     * @param delegate          Service used on cache misses and refreshes
+     * @param ttlMillis         How long a snapshot is served without refreshing
+     * @param staleWindowMillis How long after the TTL a snapshot may still be served while refreshing
+     * @param maxEntries        Maximum number of cached grid cells
+     * @param cellDegrees       Grid cell size in degrees
+     */
+    public CachingWeatherService(WeatherService delegate, long ttlMillis, long staleWindowMillis,
+                                 int maxEntries, double cellDegrees) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate weather service cannot be null");
+        }
+        if (ttlMillis <= 0 || staleWindowMillis < 0 || maxEntries <= 0 || cellDegrees <= 0) {
+            throw new IllegalArgumentException("TTL, max entries and cell size must be positive");
+        }
+
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+        this.staleWindowMillis = staleWindowMillis;
+        this.cellDegrees = cellDegrees;
+        this.entries = new LinkedHashMap<Long, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CacheEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public void getCurrentAsync(double latitude, double longitude, WeatherCallback callback) {
+        long key = GridCell.keyOf(latitude, longitude, cellDegrees);
+        long now = System.currentTimeMillis();
+
+        boolean[] refresh = new boolean[1];
+        WeatherSnapshot cached;
+        synchronized (entries) {
+            cached = lookup(key, now, refresh, 0);
+        }
+
+        if (cached == null) {
+            fetch(key, latitude, longitude, callback);
+            return;
+        }
+
+        callback.onSuccess(cached);
+        if (refresh[0]) {
+            fetch(key, latitude, longitude, null);
+        }
+    }
+
+    /**
+     * Future variant of {@link #getCurrentAsync}: hits complete immediately, misses complete
+     * when the delegate answers. Cancelling a miss cancels the delegate request.
+     */
+    @Override
+    public CompletableFuture<WeatherSnapshot> getCurrent(double latitude, double longitude,
+                                                         WeatherRequestOptions options) {
+        long key = GridCell.keyOf(latitude, longitude, cellDegrees);
+        long now = System.currentTimeMillis();
+
+        boolean[] refresh = new boolean[1];
+        WeatherSnapshot cached;
+        synchronized (entries) {
+            cached = lookup(key, now, refresh, 0);
+        }
+
+        if (cached != null) {
+            if (refresh[0]) {
+                fetch(key, latitude, longitude, null);
+            }
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<WeatherSnapshot> upstream = delegate.getCurrent(latitude, longitude, options);
+        return WeatherFutures.propagateCancellation(upstream.thenApply(snapshot -> {
+            store(key, snapshot);
+            return snapshot;
+        }), upstream);
+    }
+
+    /**
+     * Serves every cached location from the cache and fetches the rest with a single batch call
+     * to the delegate. Stale locations are served and refreshed together in one background batch.
+     */
+    @Override
+    public void getCurrentBatchAsync(double[] latitudes, double[] longitudes, WeatherBatchCallback callback) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitude and longitude arrays must have the same length");
+        }
+
+        int count = latitudes.length;
+        long now = System.currentTimeMillis();
+        long[] keys = new long[count];
+        boolean[] refresh = new boolean[count];
+        WeatherSnapshot[] results = new WeatherSnapshot[count];
+        int missCount = 0;
+        int refreshCount = 0;
+
+        synchronized (entries) {
+            for (int i = 0; i < count; i++) {
+                keys[i] = GridCell.keyOf(latitudes[i], longitudes[i], cellDegrees);
+                results[i] = lookup(keys[i], now, refresh, i);
+                if (results[i] == null) {
+                    missCount++;
+                } else if (refresh[i]) {
+                    refreshCount++;
+                }
+            }
+        }
+
+        if (refreshCount > 0) {
+            int[] refreshIndexes = indexesWhere(results, refresh, true, refreshCount);
+            fetchBatch(keys, latitudes, longitudes, refreshIndexes, null, null);
+        }
+
+        if (missCount == 0) {
+            callback.onSuccess(Collections.unmodifiableList(Arrays.asList(results)));
+            return;
+        }
+
+        int[] missIndexes = indexesWhere(results, refresh, false, missCount);
+        fetchBatch(keys, latitudes, longitudes, missIndexes, results, callback);
+    }
+
+    /**
+     * Forecasts are keyed by hour, not by fetch time, so they bypass this cache.
+     */
+    @Override
+    public void prefetchRouteAsync(List<RoutePoint> route, RouteForecastCallback callback) {
+        delegate.prefetchRouteAsync(route, callback);
+    }
+
+    /**
+     * Drops every cached snapshot.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Must be called while holding the entries lock. Returns the servable snapshot for the key,
+     * or null on a miss; sets refresh[slot] when the caller should start a background refresh.
+     */
+    private WeatherSnapshot lookup(long key, long now, boolean[] refresh, int slot) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            MISSES.increment();
+            return null;
+        }
+
+        long age = now - entry.fetchedAtMillis;
+        if (age < ttlMillis) {
+            HITS.increment();
+            return entry.snapshot;
+        }
+        if (age < ttlMillis + staleWindowMillis) {
+            STALE_HITS.increment();
+            if (!entry.refreshing) {
+                entry.refreshing = true;
+                refresh[slot] = true;
+            }
+            return entry.snapshot;
+        }
+
+        entries.remove(key);
+        MISSES.increment();
+        return null;
+    }
+
+    /**
+     * Picks the indexes of misses (wantRefresh false) or of entries to refresh (wantRefresh true).
+     */
+    private static int[] indexesWhere(WeatherSnapshot[] results, boolean[] refresh, boolean wantRefresh, int count) {
+        int[] indexes = new int[count];
+        int next = 0;
+        for (int i = 0; i < results.length && next < count; i++) {
+            boolean matches = wantRefresh ? results[i] != null && refresh[i] : results[i] == null;
+            if (matches) {
+                indexes[next++] = i;
+            }
+        }
+        return indexes;
+    }
+
+    private void fetchBatch(long[] keys, double[] latitudes, double[] longitudes, int[] indexes,
+                            WeatherSnapshot[] results, WeatherBatchCallback callback) {
+        double[] batchLatitudes = new double[indexes.length];
+        double[] batchLongitudes = new double[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            batchLatitudes[i] = latitudes[indexes[i]];
+            batchLongitudes[i] = longitudes[indexes[i]];
+        }
+
+        delegate.getCurrentBatchAsync(batchLatitudes, batchLongitudes, new WeatherBatchCallback() {
+            @Override
+            public void onSuccess(List<WeatherSnapshot> snapshots) {
+                long now = System.currentTimeMillis();
+                synchronized (entries) {
+                    for (int i = 0; i < indexes.length; i++) {
+                        WeatherSnapshot snapshot = snapshots.get(i);
+                        entries.put(keys[indexes[i]], new CacheEntry(snapshot, fetchedAt(snapshot, now)));
+                    }
+                }
+                if (callback != null) {
+                    for (int i = 0; i < indexes.length; i++) {
+                        results[indexes[i]] = snapshots.get(i);
+                    }
+                    callback.onSuccess(Collections.unmodifiableList(Arrays.asList(results)));
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                synchronized (entries) {
+                    for (int index : indexes) {
+                        CacheEntry entry = entries.get(keys[index]);
+                        if (entry != null) {
+                            entry.refreshing = false;
+                        }
+                    }
+                }
+                if (callback != null) {
+                    callback.onError(e);
+                }
+            }
+        });
+    }
+
+    private void fetch(long key, double latitude, double longitude, WeatherCallback callback) {
+        delegate.getCurrentAsync(latitude, longitude, new WeatherCallback() {
+            @Override
+            public void onSuccess(WeatherSnapshot snapshot) {
+                store(key, snapshot);
+                if (callback != null) {
+                    callback.onSuccess(snapshot);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                synchronized (entries) {
+                    CacheEntry entry = entries.get(key);
+                    if (entry != null) {
+                        entry.refreshing = false;
+                    }
+                }
+                if (callback != null) {
+                    callback.onError(e);
+                }
+            }
+        });
+    }
+
+    private void store(long key, WeatherSnapshot snapshot) {
+        long fetchedAt = fetchedAt(snapshot, System.currentTimeMillis());
+        synchronized (entries) {
+            entries.put(key, new CacheEntry(snapshot, fetchedAt));
+        }
+    }
+
+    private static long fetchedAt(WeatherSnapshot snapshot, long now) {
+        return snapshot.getFetchedAtMillis() != 0 ? snapshot.getFetchedAtMillis() : now;
+    }
+
+    private static final class CacheEntry {
+        final WeatherSnapshot snapshot;
+        final long fetchedAtMillis;
+        boolean refreshing;
+
+        CacheEntry(WeatherSnapshot snapshot, long fetchedAtMillis) {
+            this.snapshot = snapshot;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.fleet.safety.data.remote;
+
+/**
+ * Decides on which thread weather callbacks run. Android posts them to the main looper; a
+ * server can run them directly on the I/O thread or hand them to its own executor.
+ */
+public interface CallbackDispatcher {
+
+    /**
+     * Runs callbacks on the thread that completed the request.
+     */
+    CallbackDispatcher DIRECT = Runnable::run;
+
+    void dispatch(Runnable callback);
+}
@@ -0,0 +1,277 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.domain.GridCell;
+import com.fleet.safety.domain.RoutePoint;
+import com.fleet.safety.domain.WeatherSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * WeatherService decorator that deduplicates concurrent lookups for the same grid cell.
+ *
+ * The first request for a cell goes to the delegate; requests for the same cell that arrive
+ * while it is in flight are attached to it, and every attached callback is completed from the
+ * single response. Attached callers receive the snapshot fetched for the first caller's
+ * coordinates.
+ *
+ * The callback and CompletableFuture APIs keep separate in-flight tables, since they deliver
+ * on different threads. CompletableFuture requests are shared only between callers passing
+ * equal options, so each caller keeps its own deadline and hedging.
+ */
+public class CoalescingWeatherService implements WeatherService {
+
+    private final WeatherService delegate;
+    private final double cellDegrees;
+    private final Map<Long, List<WeatherCallback>> inFlight = new HashMap<>();
+    private final Map<RequestKey, SharedRequest> inFlightFutures = new HashMap<>();
+
+    public CoalescingWeatherService(WeatherService delegate) {
+        this(delegate, GridCell.DEFAULT_CELL_DEGREES);
+    }
+
+    public CoalescingWeatherService(WeatherService delegate, double cellDegrees) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate weather service cannot be null");
+        }
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.delegate = delegate;
+        this.cellDegrees = cellDegrees;
+    }
+
+    @Override
+    public void getCurrentAsync(double latitude, double longitude, WeatherCallback callback) {
+        long key = GridCell.keyOf(latitude, longitude, cellDegrees);
+
+        synchronized (inFlight) {
+            List<WeatherCallback> waiting = inFlight.get(key);
+            if (waiting != null) {
+                waiting.add(callback);
+                return;
+            }
+            waiting = new ArrayList<>(2);
+            waiting.add(callback);
+            inFlight.put(key, waiting);
+        }
+
+        try {
+            delegate.getCurrentAsync(latitude, longitude, new WeatherCallback() {
+                @Override
+                public void onSuccess(WeatherSnapshot snapshot) {
+                    for (WeatherCallback waiting : complete(key)) {
+                        waiting.onSuccess(snapshot);
+                    }
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    for (WeatherCallback waiting : complete(key)) {
+                        waiting.onError(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The delegate rejected the request before starting it; without this, callers
+            // attached meanwhile would wait on a request that never completes.
+            for (WeatherCallback waiting : complete(key)) {
+                waiting.onError(e);
+            }
+        }
+    }
+
+    /**
+     * Each caller gets its own future attached to the shared request for the cell. Cancelling
+     * one caller's future only detaches that caller; the shared request is cancelled once every
+     * attached caller has cancelled.
+     */
+    @Override
+    public CompletableFuture<WeatherSnapshot> getCurrent(double latitude, double longitude,
+                                                         WeatherRequestOptions options) {
+        RequestKey key = new RequestKey(GridCell.keyOf(latitude, longitude, cellDegrees), options);
+
+        SharedRequest shared;
+        CompletableFuture<WeatherSnapshot> future;
+        boolean start = false;
+        synchronized (inFlightFutures) {
+            shared = inFlightFutures.get(key);
+            if (shared == null) {
+                shared = new SharedRequest(key);
+                inFlightFutures.put(key, shared);
+                start = true;
+            }
+            // Attaching under the map lock means a caller can never join a request that
+            // detach() has already removed and is about to cancel.
+            future = shared.attach();
+        }
+
+        if (start) {
+            SharedRequest request = shared;
+            CompletableFuture<WeatherSnapshot> upstream;
+            try {
+                upstream = delegate.getCurrent(latitude, longitude, options);
+            } catch (RuntimeException e) {
+                remove(request);
+                request.settle(null, e);
+                return future;
+            }
+            request.upstream = upstream;
+            if (request.abandoned) {
+                // Every caller cancelled before the upstream existed, so detach() could not cancel it.
+                upstream.cancel(true);
+            }
+            upstream.whenComplete((snapshot, error) -> {
+                remove(request);
+                request.settle(snapshot, error);
+            });
+        }
+
+        return future;
+    }
+
+    /**
+     * Batches are already a single request, so they go straight to the delegate.
+     */
+    @Override
+    public void getCurrentBatchAsync(double[] latitudes, double[] longitudes, WeatherBatchCallback callback) {
+        delegate.getCurrentBatchAsync(latitudes, longitudes, callback);
+    }
+
+    @Override
+    public void prefetchRouteAsync(List<RoutePoint> route, RouteForecastCallback callback) {
+        delegate.prefetchRouteAsync(route, callback);
+    }
+
+    /**
+     * @return number of grid cells with a request currently in flight
+     */
+    public int inFlightCount() {
+        synchronized (inFlight) {
+            return inFlight.size();
+        }
+    }
+
+    /**
+     * @return the callbacks attached to the cell's request, empty if it was already completed
+     */
+    private List<WeatherCallback> complete(long key) {
+        synchronized (inFlight) {
+            List<WeatherCallback> waiting = inFlight.remove(key);
+            return waiting != null ? waiting : Collections.<WeatherCallback>emptyList();
+        }
+    }
+
+    private void remove(SharedRequest request) {
+        synchronized (inFlightFutures) {
+            inFlightFutures.remove(request.key, request);
+        }
+    }
+
+    private static final class RequestKey {
+        final long cellKey;
+        final WeatherRequestOptions options;
+
+        RequestKey(long cellKey, WeatherRequestOptions options) {
+            this.cellKey = cellKey;
+            this.options = options;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RequestKey)) {
+                return false;
+            }
+            RequestKey other = (RequestKey) o;
+            return cellKey == other.cellKey && Objects.equals(options, other.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(cellKey) + Objects.hashCode(options);
+        }
+    }
+
+    private final class SharedRequest {
+        final RequestKey key;
+        volatile CompletableFuture<WeatherSnapshot> upstream;
+        volatile boolean abandoned;
+        private final List<CompletableFuture<WeatherSnapshot>> attached = new ArrayList<>(2);
+        private boolean settled;
+        private WeatherSnapshot snapshot;
+        private Throwable error;
+
+        SharedRequest(RequestKey key) {
+            this.key = key;
+        }
+
+        CompletableFuture<WeatherSnapshot> attach() {
+            CompletableFuture<WeatherSnapshot> future = new CompletableFuture<>();
+            boolean deliverNow;
+            synchronized (this) {
+                deliverNow = settled;
+                if (!deliverNow) {
+                    attached.add(future);
+                }
+            }
+            if (deliverNow) {
+                deliver(future);
+            }
+            future.whenComplete((value, failure) -> {
+                if (future.isCancelled()) {
+                    detach(future);
+                }
+            });
+            return future;
+        }
+
+        void settle(WeatherSnapshot snapshot, Throwable error) {
+            List<CompletableFuture<WeatherSnapshot>> waiting;
+            synchronized (this) {
+                this.snapshot = snapshot;
+                this.error = error;
+                settled = true;
+                waiting = new ArrayList<>(attached);
+                attached.clear();
+            }
+            for (CompletableFuture<WeatherSnapshot> future : waiting) {
+                deliver(future);
+            }
+        }
+
+        private void deliver(CompletableFuture<WeatherSnapshot> future) {
+            if (error != null) {
+                future.completeExceptionally(WeatherFutures.unwrap(error));
+            } else {
+                future.complete(snapshot);
+            }
+        }
+
+        /**
+         * Removes the request from the in-flight table before cancelling its upstream, so no
+         * new caller attaches to a request that is being cancelled.
+         */
+        private void detach(CompletableFuture<WeatherSnapshot> future) {
+            boolean cancelUpstream;
+            synchronized (inFlightFutures) {
+                synchronized (this) {
+                    attached.remove(future);
+                    cancelUpstream = !settled && attached.isEmpty();
+                }
+                if (cancelUpstream) {
+                    abandoned = true;
+                    inFlightFutures.remove(key, this);
+                }
+            }
+            CompletableFuture<WeatherSnapshot> request = upstream;
+            if (cancelUpstream && request != null) {
+                request.cancel(true);
+            }
+        }
+    }
+}
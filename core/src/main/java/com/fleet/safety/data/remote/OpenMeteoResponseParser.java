@@ -0,0 +1,476 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.domain.WeatherSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for Open-Meteo forecast responses.
+ *
+ * Pulls temperature_2m, precipitation and weather_code out of each location's "current" object
+ * (or, for forecasts, its "hourly" arrays) straight from the response stream and skips every
+ * other value without materializing it. Accepts a single location object or an array of them
+ * (multi-location requests).
+ *
+ * Not thread-safe: the read buffers are reused between calls, so keep one instance per thread.
+ */
+class OpenMeteoResponseParser {
+
+    private static final String CURRENT = "current";
+    private static final String HOURLY = "hourly";
+    private static final String TIME = "time";
+    private static final String TEMPERATURE = "temperature_2m";
+    private static final String PRECIPITATION = "precipitation";
+    private static final String WEATHER_CODE = "weather_code";
+
+    /**
+     * Hourly forecast of one location. Times are unix seconds (timeformat=unixtime); hours whose
+     * temperature or weather code is null have a null snapshot.
+     */
+    static final class HourlyForecast {
+        final long[] timesSeconds;
+        final WeatherSnapshot[] snapshots;
+
+        HourlyForecast(long[] timesSeconds, WeatherSnapshot[] snapshots) {
+            this.timesSeconds = timesSeconds;
+            this.snapshots = snapshots;
+        }
+    }
+
+    private interface LocationReader<T> {
+        T read() throws IOException;
+    }
+
+    private final char[] buffer = new char[8192];
+    private double[] times = new double[64];
+    private double[] temperatures = new double[64];
+    private double[] precipitations = new double[64];
+    private double[] weatherCodes = new double[64];
+    private int arrayLength;
+    private char[] token = new char[64];
+    private int tokenLength;
+
+    private Reader reader;
+    private int position;
+    private int limit;
+
+    /**
+     * Parses the whole stream. The stream is not closed.
+     *
+     * @return one snapshot per location, in response order
+     * @throws IOException if the stream fails or the JSON lacks the required current fields
+     */
+    List<WeatherSnapshot> parse(InputStream in) throws IOException {
+        return parseLocations(in, this::readCurrentLocation);
+    }
+
+    /**
+     * Parses the "hourly" section of every location in the stream. The stream is not closed.
+     *
+     * @return one forecast per location, in response order
+     */
+    List<HourlyForecast> parseHourly(InputStream in) throws IOException {
+        return parseLocations(in, this::readHourlyLocation);
+    }
+
+    private <T> List<T> parseLocations(InputStream in, LocationReader<T> locationReader) throws IOException {
+        reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        position = 0;
+        limit = 0;
+
+        try {
+            List<T> locations = new ArrayList<>(1);
+            char first = nextNonWhitespace();
+            if (first == '[') {
+                if (!consumeIf(']')) {
+                    do {
+                        expect('{');
+                        locations.add(locationReader.read());
+                    } while (nextSeparator(']'));
+                }
+            } else if (first == '{') {
+                locations.add(locationReader.read());
+            } else {
+                throw syntaxError("Expected object or array");
+            }
+            return locations;
+        } finally {
+            reader = null;
+        }
+    }
+
+    /**
+     * Reads the members of a location object whose '{' was already consumed.
+     */
+    private WeatherSnapshot readCurrentLocation() throws IOException {
+        WeatherSnapshot snapshot = null;
+        if (!consumeIf('}')) {
+            do {
+                readName();
+                if (tokenEquals(CURRENT)) {
+                    expect('{');
+                    snapshot = readCurrent();
+                } else {
+                    skipValue();
+                }
+            } while (nextSeparator('}'));
+        }
+
+        if (snapshot == null) {
+            throw new IOException("Missing \"" + CURRENT + "\" in weather response");
+        }
+        return snapshot;
+    }
+
+    private HourlyForecast readHourlyLocation() throws IOException {
+        HourlyForecast forecast = null;
+        if (!consumeIf('}')) {
+            do {
+                readName();
+                if (tokenEquals(HOURLY)) {
+                    expect('{');
+                    forecast = readHourly();
+                } else {
+                    skipValue();
+                }
+            } while (nextSeparator('}'));
+        }
+
+        if (forecast == null) {
+            throw new IOException("Missing \"" + HOURLY + "\" in forecast response");
+        }
+        return forecast;
+    }
+
+    private HourlyForecast readHourly() throws IOException {
+        int timeCount = -1;
+        int temperatureCount = 0;
+        int precipitationCount = 0;
+        int weatherCodeCount = 0;
+
+        if (!consumeIf('}')) {
+            do {
+                readName();
+                if (tokenEquals(TIME)) {
+                    times = readNumberArray(times);
+                    timeCount = arrayLength;
+                } else if (tokenEquals(TEMPERATURE)) {
+                    temperatures = readNumberArray(temperatures);
+                    temperatureCount = arrayLength;
+                } else if (tokenEquals(PRECIPITATION)) {
+                    precipitations = readNumberArray(precipitations);
+                    precipitationCount = arrayLength;
+                } else if (tokenEquals(WEATHER_CODE)) {
+                    weatherCodes = readNumberArray(weatherCodes);
+                    weatherCodeCount = arrayLength;
+                } else {
+                    skipValue();
+                }
+            } while (nextSeparator('}'));
+        }
+
+        if (timeCount < 0) {
+            throw new IOException("Missing hourly " + TIME + " in forecast response");
+        }
+
+        long[] timesSeconds = new long[timeCount];
+        WeatherSnapshot[] snapshots = new WeatherSnapshot[timeCount];
+        for (int i = 0; i < timeCount; i++) {
+            timesSeconds[i] = (long) times[i];
+            double temperature = i < temperatureCount ? temperatures[i] : Double.NaN;
+            double weatherCode = i < weatherCodeCount ? weatherCodes[i] : Double.NaN;
+            double precipitation = i < precipitationCount && !Double.isNaN(precipitations[i]) ? precipitations[i] : 0.0;
+            if (!Double.isNaN(temperature) && !Double.isNaN(weatherCode)) {
+                snapshots[i] = WeatherMapper.mapFrom(temperature, precipitation, (int) weatherCode);
+            }
+        }
+        return new HourlyForecast(timesSeconds, snapshots);
+    }
+
+    /**
+     * Reads an array of numbers (nulls become NaN) into target, growing it if needed.
+     * The element count is left in arrayLength.
+     */
+    private double[] readNumberArray(double[] target) throws IOException {
+        expect('[');
+        int count = 0;
+        if (!consumeIf(']')) {
+            do {
+                double value = readNumber(Double.NaN);
+                if (count == target.length) {
+                    double[] grown = new double[target.length * 2];
+                    System.arraycopy(target, 0, grown, 0, count);
+                    target = grown;
+                }
+                target[count++] = value;
+            } while (nextSeparator(']'));
+        }
+        arrayLength = count;
+        return target;
+    }
+
+    private WeatherSnapshot readCurrent() throws IOException {
+        double temperature = Double.NaN;
+        double precipitation = 0.0;
+        double weatherCode = Double.NaN;
+
+        if (!consumeIf('}')) {
+            do {
+                readName();
+                if (tokenEquals(TEMPERATURE)) {
+                    temperature = readNumber(Double.NaN);
+                } else if (tokenEquals(PRECIPITATION)) {
+                    precipitation = readNumber(0.0);
+                } else if (tokenEquals(WEATHER_CODE)) {
+                    weatherCode = readNumber(Double.NaN);
+                } else {
+                    skipValue();
+                }
+            } while (nextSeparator('}'));
+        }
+
+        if (Double.isNaN(temperature) || Double.isNaN(weatherCode)) {
+            throw new IOException("Missing " + TEMPERATURE + " or " + WEATHER_CODE + " in current weather");
+        }
+        return WeatherMapper.mapFrom(temperature, precipitation, (int) weatherCode);
+    }
+
+    /**
+     * Reads a member name and the following ':' into the token buffer.
+     */
+    private void readName() throws IOException {
+        expect('"');
+        readStringIntoToken();
+        expect(':');
+    }
+
+    /**
+     * Reads a number, or returns fallback for a JSON null.
+     */
+    private double readNumber(double fallback) throws IOException {
+        char c = nextNonWhitespace();
+        if (c == 'n') {
+            skipLiteral();
+            return fallback;
+        }
+        tokenLength = 0;
+        appendToken(c);
+        while (fill()) {
+            c = buffer[position];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                appendToken(c);
+                position++;
+            } else {
+                break;
+            }
+        }
+        try {
+            return Double.parseDouble(new String(token, 0, tokenLength));
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid number");
+        }
+    }
+
+    private void skipValue() throws IOException {
+        char c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                skipContainer('{', '}');
+                break;
+            case '[':
+                skipContainer('[', ']');
+                break;
+            case '"':
+                skipString();
+                break;
+            default:
+                skipLiteral();
+                break;
+        }
+    }
+
+    /**
+     * Skips to the matching close bracket; the open bracket was already consumed.
+     */
+    private void skipContainer(char open, char close) throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            char c = nextChar();
+            if (c == '"') {
+                skipString();
+            } else if (c == open) {
+                depth++;
+            } else if (c == close) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of a number, true, false or null.
+     */
+    private void skipLiteral() throws IOException {
+        while (fill()) {
+            char c = buffer[position];
+            if (c == ',' || c == '}' || c == ']' || isWhitespace(c)) {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            char c = nextChar();
+            if (c == '\\') {
+                nextChar();
+            } else if (c == '"') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads string content up to the closing quote into the token buffer; the opening quote
+     * was already consumed.
+     */
+    private void readStringIntoToken() throws IOException {
+        tokenLength = 0;
+        while (true) {
+            char c = nextChar();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                c = nextChar();
+                switch (c) {
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            code = (code << 4) | Character.digit(nextChar(), 16);
+                        }
+                        c = (char) code;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            appendToken(c);
+        }
+    }
+
+    private boolean tokenEquals(String expected) {
+        if (expected.length() != tokenLength) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++) {
+            if (token[i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendToken(char c) {
+        if (tokenLength == token.length) {
+            char[] grown = new char[token.length * 2];
+            System.arraycopy(token, 0, grown, 0, tokenLength);
+            token = grown;
+        }
+        token[tokenLength++] = c;
+    }
+
+    /**
+     * Consumes ',' and returns true, or consumes the close character and returns false.
+     */
+    private boolean nextSeparator(char close) throws IOException {
+        char c = nextNonWhitespace();
+        if (c == ',') {
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw syntaxError("Expected ',' or '" + close + "'");
+    }
+
+    private boolean consumeIf(char expected) throws IOException {
+        char c = nextNonWhitespace();
+        if (c == expected) {
+            return true;
+        }
+        position--;
+        return false;
+    }
+
+    private void expect(char expected) throws IOException {
+        if (nextNonWhitespace() != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+    }
+
+    private char nextNonWhitespace() throws IOException {
+        char c;
+        do {
+            c = nextChar();
+        } while (isWhitespace(c));
+        return c;
+    }
+
+    private char nextChar() throws IOException {
+        if (!fill()) {
+            throw new IOException("Unexpected end of weather response");
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * @return true if at least one unread character is buffered
+     */
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        // Keep the last character so consumeIf can always step back one position.
+        if (limit > 0) {
+            buffer[0] = buffer[limit - 1];
+            position = 1;
+            limit = 1;
+        }
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static IOException syntaxError(String message) {
+        return new IOException("Malformed weather response: " + message);
+    }
+}
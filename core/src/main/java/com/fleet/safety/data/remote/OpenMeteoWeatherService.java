@@ -0,0 +1,428 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.domain.ForecastIndex;
+import com.fleet.safety.domain.GridCell;
+import com.fleet.safety.domain.RoutePoint;
+import com.fleet.safety.domain.WeatherSnapshot;
+import com.fleet.safety.metrics.LatencyHistogram;
+import com.fleet.safety.metrics.Metrics;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class OpenMeteoWeatherService implements WeatherService {
+
+    public static final String DEFAULT_BASE_URL = "https://api.open-meteo.com/v1/forecast";
+    private static final String CURRENT_PARAMS = "temperature_2m,precipitation,weather_code";
+    private static final String CURRENT_QUERY = "&current=" + CURRENT_PARAMS;
+    private static final String HOURLY_QUERY = "&hourly=" + CURRENT_PARAMS + "&timeformat=unixtime";
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    // Keep batch URLs well under the limits of common proxies and servers.
+    private static final int MAX_URL_LENGTH = 2000;
+    private static final int MAX_LOCATIONS_PER_REQUEST = 100;
+
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private static final LatencyHistogram QUEUE_WAIT = Metrics.histogram("weather.queue_wait");
+
+    public static final double COMODORO_LATITUDE = -45.86;
+    public static final double COMODORO_LONGITUDE = -67.48;
+
+    private final String baseUrl;
+    private final ExecutorService executorService;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final CallbackDispatcher callbackDispatcher;
+    private final WeatherHttpClient httpClient = new WeatherHttpClient();
+    private final ThreadLocal<OpenMeteoResponseParser> parsers =
+            ThreadLocal.withInitial(OpenMeteoResponseParser::new);
+
+    /**
+     * @param callbackDispatcher Runs the callbacks of the *Async methods, e.g. on the main thread
+     */
+    public OpenMeteoWeatherService(CallbackDispatcher callbackDispatcher) {
+        this(DEFAULT_BASE_URL, callbackDispatcher);
+    }
+
+    /**
+     * @param baseUrl            Forecast endpoint, e.g. a local stand-in server when testing
+     * @param callbackDispatcher Runs the callbacks of the *Async methods
+     */
+    public OpenMeteoWeatherService(String baseUrl, CallbackDispatcher callbackDispatcher) {
+        this(baseUrl, newBoundedExecutor(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY), callbackDispatcher);
+    }
+
+    /**
+     * @param baseUrl            Forecast endpoint
+     * @param executorService    Executor that runs the HTTP requests; owned and shut down by this
+     *                           service. On a server JVM this can be a virtual-thread-per-task executor.
+     * @param callbackDispatcher Runs the callbacks of the *Async methods
+     */
+    public OpenMeteoWeatherService(String baseUrl, ExecutorService executorService,
+                                   CallbackDispatcher callbackDispatcher) {
+        if (baseUrl == null || baseUrl.isEmpty()) {
+            throw new IllegalArgumentException("Base URL cannot be empty");
+        }
+        if (executorService == null || callbackDispatcher == null) {
+            throw new IllegalArgumentException("Executor service and callback dispatcher cannot be null");
+        }
+        this.baseUrl = baseUrl;
+        this.executorService = executorService;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "weather-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.callbackDispatcher = callbackDispatcher;
+    }
+
+    /**
+     * Creates a fixed-size pool with a bounded queue. Requests beyond the queue capacity are
+     * rejected and fail right away instead of piling up behind slow ones.
+     */
+    public static ExecutorService newBoundedExecutor(int threads, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "weather-io");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void getCurrentAsync(double latitude, double longitude, WeatherCallback callback) {
+        getCurrent(latitude, longitude).whenComplete((snapshot, error) -> {
+            if (error != null) {
+                Exception e = WeatherFutures.asException(error);
+                callbackDispatcher.dispatch(() -> callback.onError(e));
+            } else {
+                callbackDispatcher.dispatch(() -> callback.onSuccess(snapshot));
+            }
+        });
+    }
+
+    /**
+     * Runs the request on the service executor. The returned future fails with a
+     * TimeoutException once the deadline passes; with hedging enabled, a second attempt starts
+     * after the hedge delay (or right away if the first attempt fails) and the first answer wins.
+     * Completing or cancelling the future cancels every attempt still queued or running.
+     * Completion happens on an I/O or scheduler thread, not the main thread.
+     */
+    @Override
+    public CompletableFuture<WeatherSnapshot> getCurrent(double latitude, double longitude,
+                                                         WeatherRequestOptions options) {
+        HedgedRequest request = new HedgedRequest(buildUrl(latitude, longitude),
+                options.getHedgeDelayMillis() > 0 ? 2 : 1);
+        request.launch();
+
+        if (options.getHedgeDelayMillis() > 0) {
+            request.track(scheduler.schedule(request::launch, options.getHedgeDelayMillis(), TimeUnit.MILLISECONDS));
+        }
+        if (options.getDeadlineMillis() > 0) {
+            long deadline = options.getDeadlineMillis();
+            request.track(scheduler.schedule(() -> request.result.completeExceptionally(
+                    new TimeoutException("Weather request exceeded " + deadline + " ms")),
+                    deadline, TimeUnit.MILLISECONDS));
+        }
+        return request.result;
+    }
+
+    /**
+     * Fetches current weather for all coordinates using Open-Meteo's multi-location support.
+     * Coordinates are split into as few requests as the URL length limit allows; the chunks are
+     * fetched one after another on the service thread and delivered as one list.
+     */
+    @Override
+    public void getCurrentBatchAsync(double[] latitudes, double[] longitudes, WeatherBatchCallback callback) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitude and longitude arrays must have the same length");
+        }
+
+        Runnable task = () -> {
+            try {
+                List<WeatherSnapshot> snapshots = new ArrayList<>(latitudes.length);
+                int start = 0;
+                while (start < latitudes.length) {
+                    int end = chunkEnd(latitudes, longitudes, start, CURRENT_QUERY);
+                    List<WeatherSnapshot> chunk = fetchSnapshots(buildBatchUrl(latitudes, longitudes, start, end, CURRENT_QUERY));
+                    if (chunk.size() != end - start) {
+                        throw new IOException("Expected " + (end - start) + " locations but got " + chunk.size());
+                    }
+                    snapshots.addAll(chunk);
+                    start = end;
+                }
+
+                List<WeatherSnapshot> result = Collections.unmodifiableList(snapshots);
+                callbackDispatcher.dispatch(() -> callback.onSuccess(result));
+
+            } catch (Exception e) {
+                callbackDispatcher.dispatch(() -> callback.onError(e));
+            }
+        };
+
+        try {
+            executorService.execute(queued(task));
+        } catch (RejectedExecutionException e) {
+            callbackDispatcher.dispatch(() -> callback.onError(e));
+        }
+    }
+
+    /**
+     * Fetches hourly forecasts for every grid cell the route passes through, covering the hours
+     * between the first and last expected arrival. Each leg between consecutive waypoints is
+     * traced cell by cell, so sparse waypoints do not leave gaps; the cells are deduplicated,
+     * snapped to their centers and fetched with as few multi-location requests as the URL limit
+     * allows.
+     */
+    @Override
+    public void prefetchRouteAsync(List<RoutePoint> route, RouteForecastCallback callback) {
+        if (route == null || route.isEmpty()) {
+            throw new IllegalArgumentException("Route must contain at least one waypoint");
+        }
+
+        Runnable task = () -> {
+            try {
+                ForecastIndex forecast = fetchRouteForecast(route);
+                callbackDispatcher.dispatch(() -> callback.onSuccess(forecast));
+            } catch (Exception e) {
+                callbackDispatcher.dispatch(() -> callback.onError(e));
+            }
+        };
+
+        try {
+            executorService.execute(queued(task));
+        } catch (RejectedExecutionException e) {
+            callbackDispatcher.dispatch(() -> callback.onError(e));
+        }
+    }
+
+    private ForecastIndex fetchRouteForecast(List<RoutePoint> route) throws IOException {
+        Set<Long> cells = new LinkedHashSet<>();
+        long firstMillis = Long.MAX_VALUE;
+        long lastMillis = Long.MIN_VALUE;
+        RoutePoint previous = null;
+        for (RoutePoint point : route) {
+            if (previous == null) {
+                cells.add(GridCell.keyOf(point.getLatitude(), point.getLongitude()));
+            } else {
+                GridCell.addCellsAlong(previous.getLatitude(), previous.getLongitude(), point.getLatitude(),
+                        point.getLongitude(), GridCell.DEFAULT_CELL_DEGREES, cells);
+            }
+            previous = point;
+            firstMillis = Math.min(firstMillis, point.getExpectedAtMillis());
+            lastMillis = Math.max(lastMillis, point.getExpectedAtMillis());
+        }
+
+        long[] keys = new long[cells.size()];
+        double[] latitudes = new double[keys.length];
+        double[] longitudes = new double[keys.length];
+        int index = 0;
+        for (long key : cells) {
+            keys[index] = key;
+            latitudes[index] = GridCell.centerLatitude(key, GridCell.DEFAULT_CELL_DEGREES);
+            longitudes[index] = GridCell.centerLongitude(key, GridCell.DEFAULT_CELL_DEGREES);
+            index++;
+        }
+
+        SimpleDateFormat hourFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:00", Locale.US);
+        hourFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        String query = HOURLY_QUERY +
+                "&start_hour=" + hourFormat.format(new Date(Math.floorDiv(firstMillis, HOUR_MILLIS) * HOUR_MILLIS)) +
+                "&end_hour=" + hourFormat.format(new Date(Math.floorDiv(lastMillis, HOUR_MILLIS) * HOUR_MILLIS));
+
+        ForecastIndex.Builder builder = ForecastIndex.builder(GridCell.DEFAULT_CELL_DEGREES);
+        int start = 0;
+        while (start < keys.length) {
+            int end = chunkEnd(latitudes, longitudes, start, query);
+            String url = buildBatchUrl(latitudes, longitudes, start, end, query);
+            List<OpenMeteoResponseParser.HourlyForecast> chunk =
+                    httpClient.get(url, body -> parsers.get().parseHourly(body));
+            if (chunk.size() != end - start) {
+                throw new IOException("Expected " + (end - start) + " locations but got " + chunk.size());
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                OpenMeteoResponseParser.HourlyForecast hourly = chunk.get(i);
+                if (hourly.timesSeconds.length > 0) {
+                    builder.withSeries(keys[start + i], hourly.timesSeconds[0] * 1000L, hourly.snapshots);
+                }
+            }
+            start = end;
+        }
+        return builder.build();
+    }
+
+    public void getCurrentAsyncForComodoro(WeatherCallback callback) {
+        getCurrentAsync(COMODORO_LATITUDE, COMODORO_LONGITUDE, callback);
+    }
+
+    private String buildUrl(double latitude, double longitude) {
+        return baseUrl +
+               "?latitude=" + latitude +
+               "&longitude=" + longitude +
+               CURRENT_QUERY;
+    }
+
+    private String buildBatchUrl(double[] latitudes, double[] longitudes, int start, int end, String query) {
+        StringBuilder latitudeList = new StringBuilder();
+        StringBuilder longitudeList = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                latitudeList.append(',');
+                longitudeList.append(',');
+            }
+            latitudeList.append(latitudes[i]);
+            longitudeList.append(longitudes[i]);
+        }
+        return baseUrl +
+               "?latitude=" + latitudeList +
+               "&longitude=" + longitudeList +
+               query;
+    }
+
+    /**
+     * @return exclusive end index of the largest chunk starting at start that fits in one URL
+     */
+    private int chunkEnd(double[] latitudes, double[] longitudes, int start, String query) {
+        int length = buildBatchUrl(latitudes, longitudes, start, start + 1, query).length();
+        int end = start + 1;
+        while (end < latitudes.length && end - start < MAX_LOCATIONS_PER_REQUEST) {
+            int added = String.valueOf(latitudes[end]).length() + String.valueOf(longitudes[end]).length() + 2;
+            if (length + added > MAX_URL_LENGTH) {
+                break;
+            }
+            length += added;
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Wraps a task so the time it waits in the executor queue is recorded when metrics are on.
+     */
+    private static Runnable queued(Runnable task) {
+        long enqueued = Metrics.startTimer();
+        if (enqueued == 0L) {
+            return task;
+        }
+        return () -> {
+            QUEUE_WAIT.recordSince(enqueued);
+            task.run();
+        };
+    }
+
+    private List<WeatherSnapshot> fetchSnapshots(String urlString) throws IOException {
+        return httpClient.get(urlString, body -> parsers.get().parse(body));
+    }
+
+    public void shutdown() {
+        if (executorService != null && !executorService.isShutdown()) {
+            executorService.shutdown();
+        }
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * One logical request made of up to maxAttempts identical HTTP attempts. The first success
+     * completes the result; it fails only when every allowed attempt has failed.
+     */
+    private final class HedgedRequest {
+        final CompletableFuture<WeatherSnapshot> result = new CompletableFuture<>();
+        private final String url;
+        private final int maxAttempts;
+        private final List<Future<?>> tasks = new ArrayList<>(4);
+        private int launched;
+        private int failed;
+
+        HedgedRequest(String url, int maxAttempts) {
+            this.url = url;
+            this.maxAttempts = maxAttempts;
+            result.whenComplete((snapshot, error) -> cancelAll());
+        }
+
+        void launch() {
+            synchronized (this) {
+                if (result.isDone() || launched == maxAttempts) {
+                    return;
+                }
+                launched++;
+            }
+            try {
+                track(executorService.submit(queued(this::attempt)));
+            } catch (RejectedExecutionException e) {
+                onAttemptFailed(e);
+            }
+        }
+
+        void track(Future<?> task) {
+            boolean cancel;
+            synchronized (this) {
+                cancel = result.isDone();
+                if (!cancel) {
+                    tasks.add(task);
+                }
+            }
+            if (cancel) {
+                task.cancel(true);
+            }
+        }
+
+        private void attempt() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(fetchSnapshots(url).get(0));
+            } catch (Exception e) {
+                onAttemptFailed(e);
+            }
+        }
+
+        private void onAttemptFailed(Exception e) {
+            boolean retry;
+            boolean exhausted;
+            synchronized (this) {
+                failed++;
+                exhausted = failed == maxAttempts;
+                retry = !exhausted && launched == failed;
+            }
+            if (exhausted) {
+                result.completeExceptionally(e);
+            } else if (retry) {
+                launch();
+            }
+        }
+
+        private void cancelAll() {
+            List<Future<?>> pending;
+            synchronized (this) {
+                pending = new ArrayList<>(tasks);
+                tasks.clear();
+            }
+            for (Future<?> task : pending) {
+                task.cancel(true);
+            }
+        }
+    }
+}
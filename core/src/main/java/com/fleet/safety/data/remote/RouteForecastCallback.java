@@ -0,0 +1,10 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.domain.ForecastIndex;
+
+public interface RouteForecastCallback {
+
+    void onSuccess(ForecastIndex forecast);
+
+    void onError(Exception e);
+}
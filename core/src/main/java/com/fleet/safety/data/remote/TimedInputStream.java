@@ -0,0 +1,52 @@
+package com.fleet.safety.data.remote;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Accumulates the time spent blocked in read calls, so a streaming parse can be split into
+ * body read time and parse time.
+ */
+class TimedInputStream extends FilterInputStream {
+
+    private long readNanos;
+
+    TimedInputStream(InputStream in) {
+        super(in);
+    }
+
+    long getReadNanos() {
+        return readNanos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        try {
+            return super.read();
+        } finally {
+            readNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return super.read(buffer, offset, length);
+        } finally {
+            readNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return super.skip(n);
+        } finally {
+            readNanos += System.nanoTime() - start;
+        }
+    }
+}
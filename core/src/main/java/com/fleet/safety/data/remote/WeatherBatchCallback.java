@@ -0,0 +1,15 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.domain.WeatherSnapshot;
+
+import java.util.List;
+
+public interface WeatherBatchCallback {
+
+    /**
+     * @param snapshots One snapshot per requested coordinate, in request order
+     */
+    void onSuccess(List<WeatherSnapshot> snapshots);
+
+    void onError(Exception e);
+}
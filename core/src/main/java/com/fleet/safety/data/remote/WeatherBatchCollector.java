@@ -0,0 +1,64 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.domain.WeatherSnapshot;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Gathers individually delivered snapshots into one ordered batch result. Completes the batch
+ * callback once: with the full list when every slot is filled, or with the first error.
+ */
+class WeatherBatchCollector {
+
+    private final WeatherSnapshot[] results;
+    private final WeatherBatchCallback callback;
+    private int remaining;
+    private boolean done;
+
+    WeatherBatchCollector(int size, WeatherBatchCallback callback) {
+        this.results = new WeatherSnapshot[size];
+        this.callback = callback;
+        this.remaining = size;
+    }
+
+    void set(int index, WeatherSnapshot snapshot) {
+        boolean complete;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            results[index] = snapshot;
+            complete = --remaining == 0;
+            done = complete;
+        }
+        if (complete) {
+            callback.onSuccess(Collections.unmodifiableList(Arrays.asList(results)));
+        }
+    }
+
+    void fail(Exception e) {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+        }
+        callback.onError(e);
+    }
+
+    /**
+     * Completes the batch right away if nothing is left to wait for.
+     */
+    void completeIfEmpty() {
+        boolean complete;
+        synchronized (this) {
+            complete = !done && remaining == 0;
+            done = done || complete;
+        }
+        if (complete) {
+            callback.onSuccess(Collections.unmodifiableList(Arrays.asList(results)));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.fleet.safety.data.remote;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Helpers shared by the WeatherService decorators' CompletableFuture paths.
+ */
+final class WeatherFutures {
+
+    private WeatherFutures() {
+    }
+
+    /**
+     * Cancels upstream when downstream is cancelled. CompletableFuture stages do not do this on
+     * their own, and decorators need cancellation to reach the request that does the I/O.
+     */
+    static <T> CompletableFuture<T> propagateCancellation(CompletableFuture<T> downstream,
+                                                          CompletableFuture<?> upstream) {
+        downstream.whenComplete((value, error) -> {
+            if (downstream.isCancelled()) {
+                upstream.cancel(true);
+            }
+        });
+        return downstream;
+    }
+
+    /**
+     * Strips the CompletionException wrapper added by dependent stages.
+     */
+    static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    static Exception asException(Throwable error) {
+        Throwable cause = unwrap(error);
+        return cause instanceof Exception ? (Exception) cause : new Exception(cause);
+    }
+}
@@ -0,0 +1,163 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.metrics.Counter;
+import com.fleet.safety.metrics.LatencyHistogram;
+import com.fleet.safety.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Small HTTP GET client for the weather API.
+ *
+ * Connections are left to the platform keep-alive pool: bodies are read to the end and closed
+ * instead of calling disconnect(), so the next request to the same host reuses the socket and
+ * TLS session. Bodies are requested gzip-compressed. When the server sends ETag or
+ * Last-Modified, the parsed result is remembered per URL and the next request is made
+ * conditional; a 304 answer returns the remembered result without reading a body.
+ *
+ * When {@link Metrics} is enabled, each request records connect time, time to first byte,
+ * time blocked reading the body and the remaining parse time separately.
+ */
+class WeatherHttpClient {
+
+    interface BodyParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 10000;
+    private static final int READ_TIMEOUT_MILLIS = 15000;
+    private static final int MAX_VALIDATED_URLS = 64;
+
+    private static final Counter REQUESTS = Metrics.counter("weather.http.requests");
+    private static final Counter NOT_MODIFIED = Metrics.counter("weather.http.not_modified");
+    private static final Counter FAILURES = Metrics.counter("weather.http.failures");
+    private static final LatencyHistogram CONNECT = Metrics.histogram("weather.connect");
+    private static final LatencyHistogram TIME_TO_FIRST_BYTE = Metrics.histogram("weather.ttfb");
+    private static final LatencyHistogram BODY_READ = Metrics.histogram("weather.body_read");
+    private static final LatencyHistogram PARSE = Metrics.histogram("weather.parse");
+
+    private final Map<String, Validated> validated = new LinkedHashMap<String, Validated>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Validated> eldest) {
+            return size() > MAX_VALIDATED_URLS;
+        }
+    };
+
+    <T> T get(String urlString, BodyParser<T> parser) throws IOException {
+        Validated previous;
+        synchronized (validated) {
+            previous = validated.get(urlString);
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(urlString).openConnection();
+        boolean reusable = false;
+
+        try {
+            connection.setRequestMethod("GET");
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            if (previous != null) {
+                if (previous.etag != null) {
+                    connection.setRequestProperty("If-None-Match", previous.etag);
+                }
+                if (previous.lastModified != null) {
+                    connection.setRequestProperty("If-Modified-Since", previous.lastModified);
+                }
+            }
+
+            REQUESTS.increment();
+            long connectStart = Metrics.startTimer();
+            connection.connect();
+            CONNECT.recordSince(connectStart);
+
+            long requestSent = Metrics.startTimer();
+            int responseCode = connection.getResponseCode();
+            TIME_TO_FIRST_BYTE.recordSince(requestSent);
+
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && previous != null) {
+                drainAndClose(connection.getInputStream());
+                reusable = true;
+                NOT_MODIFIED.increment();
+                @SuppressWarnings("unchecked")
+                T cached = (T) previous.value;
+                return cached;
+            }
+
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                drainAndClose(connection.getErrorStream());
+                reusable = true;
+                FAILURES.increment();
+                throw new IOException("HTTP request failed with code: " + responseCode);
+            }
+
+            T value;
+            InputStream raw = connection.getInputStream();
+            InputStream decoded = "gzip".equalsIgnoreCase(connection.getContentEncoding())
+                    ? new GZIPInputStream(raw) : raw;
+            TimedInputStream timed = Metrics.isEnabled() ? new TimedInputStream(decoded) : null;
+            try (InputStream body = timed != null ? timed : decoded) {
+                long parseStart = Metrics.startTimer();
+                value = parser.parse(body);
+                if (timed != null && parseStart != 0L) {
+                    long elapsed = System.nanoTime() - parseStart;
+                    BODY_READ.record(timed.getReadNanos());
+                    PARSE.record(elapsed - timed.getReadNanos());
+                }
+                drain(body);
+            }
+            reusable = true;
+
+            String etag = connection.getHeaderField("ETag");
+            String lastModified = connection.getHeaderField("Last-Modified");
+            if (etag != null || lastModified != null) {
+                synchronized (validated) {
+                    validated.put(urlString, new Validated(etag, lastModified, value));
+                }
+            }
+            return value;
+
+        } finally {
+            if (!reusable) {
+                FAILURES.increment();
+                connection.disconnect();
+            }
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] skip = new byte[512];
+        while (in.read(skip) != -1) {
+            // Reading to the end lets the connection go back to the keep-alive pool.
+        }
+    }
+
+    private static void drainAndClose(InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+        try {
+            drain(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static final class Validated {
+        final String etag;
+        final String lastModified;
+        final Object value;
+
+        Validated(String etag, String lastModified, Object value) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+    }
+}
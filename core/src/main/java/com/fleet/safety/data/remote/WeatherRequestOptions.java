@@ -0,0 +1,75 @@
+package com.fleet.safety.data.remote;
+
+/**
+ * Per-request tuning for the CompletableFuture weather API.
+ */
+public class WeatherRequestOptions {
+
+    public static final WeatherRequestOptions DEFAULT = builder().build();
+
+    private final long deadlineMillis;
+    private final long hedgeDelayMillis;
+
+    private WeatherRequestOptions(long deadlineMillis, long hedgeDelayMillis) {
+        this.deadlineMillis = deadlineMillis;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+    }
+
+    /**
+     * @return time after which the request fails with a TimeoutException, or 0 for no deadline
+     */
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    /**
+     * @return delay after which a second, identical attempt is started if the first has not
+     *         answered yet, or 0 to disable hedging
+     */
+    public long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WeatherRequestOptions)) {
+            return false;
+        }
+        WeatherRequestOptions other = (WeatherRequestOptions) o;
+        return deadlineMillis == other.deadlineMillis && hedgeDelayMillis == other.hedgeDelayMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(deadlineMillis) + Long.hashCode(hedgeDelayMillis);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private long deadlineMillis;
+        private long hedgeDelayMillis;
+
+        public Builder withDeadlineMillis(long deadlineMillis) {
+            this.deadlineMillis = deadlineMillis;
+            return this;
+        }
+
+        public Builder withHedgeDelayMillis(long hedgeDelayMillis) {
+            this.hedgeDelayMillis = hedgeDelayMillis;
+            return this;
+        }
+
+        public WeatherRequestOptions build() {
+            if (deadlineMillis < 0 || hedgeDelayMillis < 0) {
+                throw new IllegalArgumentException("Deadline and hedge delay cannot be negative");
+            }
+            return new WeatherRequestOptions(deadlineMillis, hedgeDelayMillis);
+        }
+    }
+}
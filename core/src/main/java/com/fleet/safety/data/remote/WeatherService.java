@@ -0,0 +1,94 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.domain.RoutePoint;
+import com.fleet.safety.domain.WeatherSnapshot;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface WeatherService {
+
+    /**
+     * Retrieves current weather data for the specified coordinates asynchronously.
+     *
+     * @param latitude The latitude coordinate
+     * @param longitude The longitude coordinate
+     * @param callback The callback to handle success or error responses
+     */
+    void getCurrentAsync(double latitude, double longitude, WeatherCallback callback);
+
+    /**
+     * Retrieves current weather data for several coordinates asynchronously.
+     * The default implementation issues one lookup per coordinate; implementations that can
+     * fetch many locations in one request should override it.
+     *
+     * @param latitudes Latitude of each location
+     * @param longitudes Longitude of each location, same length as latitudes
+     * @param callback Receives one snapshot per location in request order, or the first error
+     */
+    default void getCurrentBatchAsync(double[] latitudes, double[] longitudes, WeatherBatchCallback callback) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitude and longitude arrays must have the same length");
+        }
+
+        WeatherBatchCollector collector = new WeatherBatchCollector(latitudes.length, callback);
+        for (int i = 0; i < latitudes.length; i++) {
+            int index = i;
+            getCurrentAsync(latitudes[i], longitudes[i], new WeatherCallback() {
+                @Override
+                public void onSuccess(WeatherSnapshot snapshot) {
+                    collector.set(index, snapshot);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    collector.fail(e);
+                }
+            });
+        }
+        collector.completeIfEmpty();
+    }
+
+    /**
+     * Retrieves current weather data as a CompletableFuture. Cancelling the future abandons the
+     * request; implementations that own the I/O also stop any queued or running attempt.
+     *
+     * @param latitude The latitude coordinate
+     * @param longitude The longitude coordinate
+     * @param options Deadline and hedging settings. The default implementation bridges to
+     *                {@link #getCurrentAsync} and ignores them.
+     * @return future completed with the snapshot, or exceptionally on error, timeout or cancellation
+     */
+    default CompletableFuture<WeatherSnapshot> getCurrent(double latitude, double longitude,
+                                                          WeatherRequestOptions options) {
+        CompletableFuture<WeatherSnapshot> future = new CompletableFuture<>();
+        getCurrentAsync(latitude, longitude, new WeatherCallback() {
+            @Override
+            public void onSuccess(WeatherSnapshot snapshot) {
+                future.complete(snapshot);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    default CompletableFuture<WeatherSnapshot> getCurrent(double latitude, double longitude) {
+        return getCurrent(latitude, longitude, WeatherRequestOptions.DEFAULT);
+    }
+
+    /**
+     * Fetches hourly forecasts covering a planned route and indexes them by (grid cell, hour).
+     * The default implementation reports an UnsupportedOperationException.
+     *
+     * @param route Waypoints with their expected arrival times
+     * @param callback Receives the forecast index, or the error
+     */
+    default void prefetchRouteAsync(List<RoutePoint> route, RouteForecastCallback callback) {
+        callback.onError(new UnsupportedOperationException("Route forecasts are not supported by "
+                + getClass().getSimpleName()));
+    }
+}
@@ -0,0 +1,292 @@
+package com.fleet.safety.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, flattened form of a rule set produced by {@link RuleSetParser}.
+ *
+ * Each rule is one index into parallel arrays: bit masks over the RoadType, TimeOfDay and
+ * WeatherType ordinals, [min, max) ranges for temperature and precipitation, a penalty and an
+ * optional speed clamp. Evaluation is a loop over those arrays that sums the penalties of
+ * matching rules, applies their clamps, then the global clamp and the admin bounds; the
+ * primitive entry points allocate nothing.
+ */
+public final class CompiledRuleSet {
+
+    /**
+     * Rules are tracked in a long bit mask, which bounds the size of a rule set.
+     */
+    public static final int MAX_RULES = 64;
+
+    static final int ANY = -1;
+    static final int NO_MIN_SPEED = Integer.MIN_VALUE;
+    static final int NO_MAX_SPEED = Integer.MAX_VALUE;
+
+    private final int version;
+    private final int baseSpeed;
+    private final int clampMin;
+    private final int clampMax;
+    private final int ruleCount;
+    private final int[] roadMasks;
+    private final int[] timeMasks;
+    private final int[] weatherMasks;
+    private final double[] minTemperatures;
+    private final double[] maxTemperatures;
+    private final double[] minPrecipitations;
+    private final double[] maxPrecipitations;
+    private final int[] penalties;
+    private final int[] minSpeeds;
+    private final int[] maxSpeeds;
+    private final String[] labels;
+    private final int fingerprint;
+
+    private CompiledRuleSet(Builder builder) {
+        this.version = builder.version;
+        this.baseSpeed = builder.baseSpeed;
+        this.clampMin = builder.clampMin;
+        this.clampMax = builder.clampMax;
+        this.ruleCount = builder.labels.size();
+        this.roadMasks = new int[ruleCount];
+        this.timeMasks = new int[ruleCount];
+        this.weatherMasks = new int[ruleCount];
+        this.minTemperatures = new double[ruleCount];
+        this.maxTemperatures = new double[ruleCount];
+        this.minPrecipitations = new double[ruleCount];
+        this.maxPrecipitations = new double[ruleCount];
+        this.penalties = new int[ruleCount];
+        this.minSpeeds = new int[ruleCount];
+        this.maxSpeeds = new int[ruleCount];
+        this.labels = builder.labels.toArray(new String[0]);
+
+        for (int i = 0; i < ruleCount; i++) {
+            int[] masks = builder.masks.get(i);
+            double[] ranges = builder.ranges.get(i);
+            roadMasks[i] = masks[0];
+            timeMasks[i] = masks[1];
+            weatherMasks[i] = masks[2];
+            penalties[i] = masks[3];
+            minSpeeds[i] = masks[4];
+            maxSpeeds[i] = masks[5];
+            minTemperatures[i] = ranges[0];
+            maxTemperatures[i] = ranges[1];
+            minPrecipitations[i] = ranges[2];
+            maxPrecipitations[i] = ranges[3];
+        }
+        this.fingerprint = Arrays.hashCode(new int[]{version, baseSpeed, clampMin, clampMax,
+                Arrays.hashCode(roadMasks), Arrays.hashCode(timeMasks), Arrays.hashCode(weatherMasks),
+                Arrays.hashCode(minTemperatures), Arrays.hashCode(maxTemperatures),
+                Arrays.hashCode(minPrecipitations), Arrays.hashCode(maxPrecipitations),
+                Arrays.hashCode(penalties), Arrays.hashCode(minSpeeds), Arrays.hashCode(maxSpeeds)});
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getBaseSpeed() {
+        return baseSpeed;
+    }
+
+    public int getClampMin() {
+        return clampMin;
+    }
+
+    public int getClampMax() {
+        return clampMax;
+    }
+
+    /**
+     * Hash of everything that affects the computed speed (labels excluded), so a journaled
+     * decision can be matched to the rules that made it even if two files share a version.
+     */
+    public int getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    public String getLabel(int rule) {
+        return labels[rule];
+    }
+
+    /**
+     * @return bit i set when rule i applies to the given conditions
+     */
+    public long match(int roadOrdinal, int timeOrdinal, int weatherOrdinal,
+                      double temperatureCelsius, double precipitationMm) {
+        int roadBit = 1 << roadOrdinal;
+        int timeBit = 1 << timeOrdinal;
+        int weatherBit = 1 << weatherOrdinal;
+        long matched = 0L;
+        for (int i = 0; i < ruleCount; i++) {
+            if ((roadMasks[i] & roadBit) != 0
+                    && (timeMasks[i] & timeBit) != 0
+                    && (weatherMasks[i] & weatherBit) != 0
+                    && temperatureCelsius >= minTemperatures[i] && temperatureCelsius < maxTemperatures[i]
+                    && precipitationMm >= minPrecipitations[i] && precipitationMm < maxPrecipitations[i]) {
+                matched |= 1L << i;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * @return sum of the penalties of the rules in the mask
+     */
+    public int penaltyOf(long matched) {
+        int total = 0;
+        for (long remaining = matched; remaining != 0; remaining &= remaining - 1) {
+            total += penalties[Long.numberOfTrailingZeros(remaining)];
+        }
+        return total;
+    }
+
+    /**
+     * Applies the clamps of the rules in the mask: the highest minimum first, then the lowest
+     * maximum, so a rule capping the speed wins over one raising it.
+     */
+    public int clampByRules(long matched, int speed) {
+        int min = NO_MIN_SPEED;
+        int max = NO_MAX_SPEED;
+        for (long remaining = matched; remaining != 0; remaining &= remaining - 1) {
+            int rule = Long.numberOfTrailingZeros(remaining);
+            min = Math.max(min, minSpeeds[rule]);
+            max = Math.min(max, maxSpeeds[rule]);
+        }
+        return Math.min(max, Math.max(min, speed));
+    }
+
+    /**
+     * Allocation-free evaluation on primitive inputs.
+     *
+     * @param baseSpeed base speed, or {@link SpeedRuleEngine#UNSET} for the rule set's base
+     * @param minAllowedSpeed admin minimum, or UNSET
+     * @param maxAllowedSpeed admin maximum, or UNSET
+     */
+    public int computeSpeedKmh(int roadOrdinal, int timeOrdinal, int weatherOrdinal,
+                               double temperatureCelsius, double precipitationMm,
+                               int baseSpeed, int minAllowedSpeed, int maxAllowedSpeed) {
+        int base = baseSpeed != SpeedRuleEngine.UNSET ? baseSpeed : this.baseSpeed;
+        long matched = match(roadOrdinal, timeOrdinal, weatherOrdinal, temperatureCelsius, precipitationMm);
+        int speed = clampByRules(matched, base - penaltyOf(matched));
+        speed = Math.max(clampMin, Math.min(clampMax, speed));
+        if (minAllowedSpeed != SpeedRuleEngine.UNSET && speed < minAllowedSpeed) {
+            speed = minAllowedSpeed;
+        }
+        if (maxAllowedSpeed != SpeedRuleEngine.UNSET && speed > maxAllowedSpeed) {
+            speed = maxAllowedSpeed;
+        }
+        return speed;
+    }
+
+    /**
+     * Evaluates the rule set and returns a decision whose reason lists the matching rules by label.
+     */
+    SpeedDecision evaluate(RoadType roadType, TimeOfDay timeOfDay, WeatherSnapshot weather,
+                           Integer baseSpeed, Integer minAllowedSpeed, Integer maxAllowedSpeed) {
+        long matched = match(roadType.ordinal(), timeOfDay.ordinal(), weather.getWeatherType().ordinal(),
+                weather.getTemperatureCelsius(), weather.getPrecipitationMm());
+        int base = baseSpeed != null ? baseSpeed : this.baseSpeed;
+        int speed = clampByRules(matched, base - penaltyOf(matched));
+        int flags = 0;
+
+        if (speed < clampMin) {
+            speed = clampMin;
+            flags |= SpeedDecision.CLAMPED_TO_GLOBAL_MIN;
+        } else if (speed > clampMax) {
+            speed = clampMax;
+            flags |= SpeedDecision.CLAMPED_TO_GLOBAL_MAX;
+        }
+
+        int minBound = SpeedRuleEngine.UNSET;
+        int maxBound = SpeedRuleEngine.UNSET;
+        if (minAllowedSpeed != null) {
+            minBound = minAllowedSpeed;
+            flags |= SpeedDecision.HAS_MIN_BOUND;
+            if (speed < minBound) {
+                speed = minBound;
+                flags |= SpeedDecision.ADMIN_BOUNDS_APPLIED;
+            }
+        }
+        if (maxAllowedSpeed != null) {
+            maxBound = maxAllowedSpeed;
+            flags |= SpeedDecision.HAS_MAX_BOUND;
+            if (speed > maxBound) {
+                speed = maxBound;
+                flags |= SpeedDecision.ADMIN_BOUNDS_APPLIED;
+            }
+        }
+
+        return new SpeedDecision(speed, base, flags, this, matched, minBound, maxBound);
+    }
+
+    void appendPenalties(StringBuilder builder, int baseSpeed, long matched) {
+        for (long remaining = matched; remaining != 0; remaining &= remaining - 1) {
+            int rule = Long.numberOfTrailingZeros(remaining);
+            builder.append(", -").append(penalties[rule]).append(' ').append(labels[rule]);
+        }
+        int speed = baseSpeed - penaltyOf(matched);
+        int clamped = clampByRules(matched, speed);
+        if (clamped != speed) {
+            builder.append(", → rule clamp ").append(clamped);
+        }
+    }
+
+    static final class Builder {
+        private int version;
+        private int baseSpeed = SpeedRuleEngine.DEFAULT_BASE_SPEED;
+        private int clampMin = SpeedRuleEngine.GLOBAL_MIN_SPEED;
+        private int clampMax = SpeedRuleEngine.GLOBAL_MAX_SPEED;
+        private final List<String> labels = new ArrayList<>();
+        private final List<int[]> masks = new ArrayList<>();
+        private final List<double[]> ranges = new ArrayList<>();
+
+        Builder withVersion(int version) {
+            this.version = version;
+            return this;
+        }
+
+        Builder withBaseSpeed(int baseSpeed) {
+            this.baseSpeed = baseSpeed;
+            return this;
+        }
+
+        Builder withClamp(int clampMin, int clampMax) {
+            this.clampMin = clampMin;
+            this.clampMax = clampMax;
+            return this;
+        }
+
+        /**
+         * Masks use {@link #ANY} for "no condition"; ranges are [min, max). Speeds use
+         * {@link #NO_MIN_SPEED} and {@link #NO_MAX_SPEED} for a rule without a clamp.
+         */
+        Builder addRule(String label, int roadMask, int timeMask, int weatherMask,
+                        double minTemperature, double maxTemperature,
+                        double minPrecipitation, double maxPrecipitation, int penalty,
+                        int minSpeed, int maxSpeed) {
+            if (labels.size() == MAX_RULES) {
+                throw new IllegalArgumentException("A rule set cannot have more than " + MAX_RULES + " rules");
+            }
+            labels.add(label);
+            masks.add(new int[]{roadMask, timeMask, weatherMask, penalty, minSpeed, maxSpeed});
+            ranges.add(new double[]{minTemperature, maxTemperature, minPrecipitation, maxPrecipitation});
+            return this;
+        }
+
+        CompiledRuleSet build() {
+            if (clampMin > clampMax) {
+                throw new IllegalArgumentException("Clamp minimum cannot be greater than clamp maximum");
+            }
+            return new CompiledRuleSet(this);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.fleet.safety.domain;
+
+import java.util.Objects;
+
+/**
+ * Precomputed speed decisions for every RoadType x TimeOfDay x WeatherType combination
+ * under a fixed set of admin values (base, min, max).
+ *
+ * Lookups are plain array indexing and return shared, immutable SpeedDecision instances,
+ * so they allocate nothing.
+ */
+public final class CompiledSpeedTable {
+
+    private static final RoadType[] ROAD_TYPES = RoadType.values();
+    private static final TimeOfDay[] TIMES_OF_DAY = TimeOfDay.values();
+    private static final WeatherType[] WEATHER_TYPES = WeatherType.values();
+
+    private final Integer baseSpeed;
+    private final Integer minAllowedSpeed;
+    private final Integer maxAllowedSpeed;
+
+    private final int[] speeds;
+    private final String[] reasons;
+    private final SpeedDecision[] decisions;
+
+    private CompiledSpeedTable(Integer baseSpeed, Integer minAllowedSpeed, Integer maxAllowedSpeed, int size) {
+        this.baseSpeed = baseSpeed;
+        this.minAllowedSpeed = minAllowedSpeed;
+        this.maxAllowedSpeed = maxAllowedSpeed;
+        this.speeds = new int[size];
+        this.reasons = new String[size];
+        this.decisions = new SpeedDecision[size];
+    }
+
+    /**
+     * Evaluates every enum combination once through the given engine and stores the results.
+     *
+     * @param engine          Engine used to evaluate each combination
+     * @param baseSpeed       Admin base speed, or null for the engine default
+     * @param minAllowedSpeed Admin lower bound, or null if unbounded
+     * @param maxAllowedSpeed Admin upper bound, or null if unbounded
+     * @return the compiled table
+     */
+    static CompiledSpeedTable compile(SpeedRuleEngine engine, Integer baseSpeed,
+                                      Integer minAllowedSpeed, Integer maxAllowedSpeed) {
+        CompiledSpeedTable table = new CompiledSpeedTable(baseSpeed, minAllowedSpeed, maxAllowedSpeed,
+                ROAD_TYPES.length * TIMES_OF_DAY.length * WEATHER_TYPES.length);
+
+        for (RoadType roadType : ROAD_TYPES) {
+            for (TimeOfDay timeOfDay : TIMES_OF_DAY) {
+                DriverSettings settings = DriverSettings.builder()
+                        .withRoadType(roadType)
+                        .withTimeOfDay(timeOfDay)
+                        .withBaseSpeed(baseSpeed)
+                        .withMinAllowedSpeed(minAllowedSpeed)
+                        .withMaxAllowedSpeed(maxAllowedSpeed)
+                        .build();
+
+                for (WeatherType weatherType : WEATHER_TYPES) {
+                    SpeedDecision computed = engine.evaluate(settings,
+                            new WeatherSnapshot(20.0, 0.0, weatherType));
+                    String reason = computed.getReason().intern();
+
+                    int index = indexOf(roadType, timeOfDay, weatherType);
+                    table.speeds[index] = computed.getMaxSpeedKmh();
+                    table.reasons[index] = reason;
+                    table.decisions[index] = new SpeedDecision(computed.getMaxSpeedKmh(), reason);
+                }
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * @return true if this table was compiled for exactly these admin values
+     */
+    public boolean matches(Integer baseSpeed, Integer minAllowedSpeed, Integer maxAllowedSpeed) {
+        return Objects.equals(this.baseSpeed, baseSpeed)
+                && Objects.equals(this.minAllowedSpeed, minAllowedSpeed)
+                && Objects.equals(this.maxAllowedSpeed, maxAllowedSpeed);
+    }
+
+    public int getMaxSpeedKmh(RoadType roadType, TimeOfDay timeOfDay, WeatherType weatherType) {
+        return speeds[indexOf(roadType, timeOfDay, weatherType)];
+    }
+
+    public String getReason(RoadType roadType, TimeOfDay timeOfDay, WeatherType weatherType) {
+        return reasons[indexOf(roadType, timeOfDay, weatherType)];
+    }
+
+    public SpeedDecision lookup(RoadType roadType, TimeOfDay timeOfDay, WeatherType weatherType) {
+        return decisions[indexOf(roadType, timeOfDay, weatherType)];
+    }
+
+    public Integer getBaseSpeed() {
+        return baseSpeed;
+    }
+
+    public Integer getMinAllowedSpeed() {
+        return minAllowedSpeed;
+    }
+
+    public Integer getMaxAllowedSpeed() {
+        return maxAllowedSpeed;
+    }
+
+    private static int indexOf(RoadType roadType, TimeOfDay timeOfDay, WeatherType weatherType) {
+        return (roadType.ordinal() * TIMES_OF_DAY.length + timeOfDay.ordinal()) * WEATHER_TYPES.length
+                + weatherType.ordinal();
+    }
+}
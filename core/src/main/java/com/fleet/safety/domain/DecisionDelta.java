@@ -0,0 +1,41 @@
+package com.fleet.safety.domain;
+
+/**
+ * A vehicle whose speed decision changed during a {@link FleetRecomputeScheduler#recompute()}.
+ */
+public final class DecisionDelta {
+
+    private final String vehicleId;
+    private final SpeedDecision previous;
+    private final SpeedDecision current;
+
+    DecisionDelta(String vehicleId, SpeedDecision previous, SpeedDecision current) {
+        this.vehicleId = vehicleId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public String getVehicleId() {
+        return vehicleId;
+    }
+
+    /**
+     * @return the decision before the recompute, or null for the vehicle's first decision
+     */
+    public SpeedDecision getPrevious() {
+        return previous;
+    }
+
+    public SpeedDecision getCurrent() {
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return "DecisionDelta{" +
+                "vehicleId='" + vehicleId + '\'' +
+                ", previous=" + (previous != null ? previous.getMaxSpeedKmh() : null) +
+                ", current=" + current.getMaxSpeedKmh() +
+                '}';
+    }
+}
@@ -0,0 +1,109 @@
+package com.fleet.safety.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-capacity history of speed decisions stored in primitive ring buffers.
+ *
+ * Each record is a timestamp, a speed and a reason id. Reason strings are interned into a
+ * table the first time they are seen; the number of distinct reasons is small (one per
+ * rule combination), so recording a decision allocates nothing in steady state. Once full,
+ * the oldest record is overwritten.
+ *
+ * Index 0 is the newest record. Not thread-safe; record and read from one thread.
+ */
+public final class DecisionHistory {
+
+    private final long[] timestamps;
+    private final int[] speeds;
+    private final int[] reasonIds;
+    private final Map<String, Integer> reasonIdsByText = new HashMap<>();
+    private final List<String> reasons = new ArrayList<>();
+
+    // Slot of the next write; the newest record is at head - 1.
+    private int head;
+    private int size;
+
+    public DecisionHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.timestamps = new long[capacity];
+        this.speeds = new int[capacity];
+        this.reasonIds = new int[capacity];
+    }
+
+    /**
+     * @return true if the oldest record was overwritten to make room
+     */
+    public boolean add(long epochMillis, SpeedDecision decision) {
+        return add(epochMillis, decision.getMaxSpeedKmh(), decision.getReason());
+    }
+
+    public boolean add(long epochMillis, int speedKmh, String reason) {
+        timestamps[head] = epochMillis;
+        speeds[head] = speedKmh;
+        reasonIds[head] = reasonIdOf(reason);
+        head = head + 1 == timestamps.length ? 0 : head + 1;
+
+        if (size == timestamps.length) {
+            return true;
+        }
+        size++;
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return timestamps.length;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public long timestampAt(int index) {
+        return timestamps[slotOf(index)];
+    }
+
+    public int speedAt(int index) {
+        return speeds[slotOf(index)];
+    }
+
+    public int reasonIdAt(int index) {
+        return reasonIds[slotOf(index)];
+    }
+
+    public String reasonAt(int index) {
+        return reasons.get(reasonIdAt(index));
+    }
+
+    public String reasonOf(int reasonId) {
+        return reasons.get(reasonId);
+    }
+
+    private int reasonIdOf(String reason) {
+        Integer id = reasonIdsByText.get(reason);
+        if (id == null) {
+            id = reasons.size();
+            reasons.add(reason);
+            reasonIdsByText.put(reason, id);
+        }
+        return id;
+    }
+
+    private int slotOf(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside history of size " + size);
+        }
+        int slot = head - 1 - index;
+        return slot < 0 ? slot + timestamps.length : slot;
+    }
+}
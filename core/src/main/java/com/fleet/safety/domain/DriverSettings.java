@@ -57,6 +57,25 @@ public class DriverSettings {
             return this;
         }
 
+        /**
+         * Sets DAY or NIGHT from the sun position at the given place and time.
+         */
+        public Builder withSolarTimeOfDay(SolarCalculator calculator, double latitude, double longitude,
+                                          long epochMillis) {
+            this.timeOfDay = calculator.timeOfDay(latitude, longitude, epochMillis);
+            return this;
+        }
+
+        /**
+         * Copies the base speed and admin bounds of a configuration snapshot.
+         */
+        public Builder withConfig(SpeedConfig config) {
+            this.baseSpeed = config.getBaseSpeed();
+            this.minAllowedSpeed = config.getMinAllowedSpeed();
+            this.maxAllowedSpeed = config.getMaxAllowedSpeed();
+            return this;
+        }
+
         public Builder withMinAllowedSpeed(Integer minAllowedSpeed) {
             this.minAllowedSpeed = minAllowedSpeed;
             return this;
@@ -0,0 +1,304 @@
+package com.fleet.safety.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the speed decisions of a whole fleet current by recomputing only the vehicles whose
+ * inputs changed, instead of re-evaluating every vehicle on every update.
+ *
+ * Vehicles are indexed by grid cell. A new weather snapshot for a cell marks the vehicles in it
+ * dirty only if it would change their decisions: a different WeatherType, or in graded mode a
+ * different precipitation or cold penalty (see {@link GradedWeatherPenalty}). A vehicle is also marked dirty when it moves to
+ * another cell or its settings change. {@link #recompute()} evaluates the dirty vehicles and
+ * reports the ones whose speed or reason actually changed.
+ *
+ * Weather is kept only for cells that hold vehicles; {@link #updateVehicle} reports when a
+ * vehicle enters a cell without weather so the caller can fetch it. Until the cell's first
+ * snapshot arrives, its vehicles are evaluated against {@link WeatherSnapshot#WORST_CASE}, so a
+ * vehicle entering it never keeps the more permissive decision of the cell it left; the first
+ * snapshot marks them dirty again. Unknown weather is never treated as clear.
+ *
+ * All methods are thread-safe. Listeners are called outside the lock, on the thread that
+ * called recompute().
+ */
+public class FleetRecomputeScheduler {
+
+    public interface Listener {
+        /**
+         * @param deltas changed decisions of one recompute, never empty
+         */
+        void onDeltas(List<DecisionDelta> deltas);
+    }
+
+    private final SpeedRuleEngine engine;
+    private final boolean graded;
+    private final double cellDegrees;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Map<String, Vehicle> vehicles = new HashMap<>();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final List<Vehicle> dirty = new ArrayList<>();
+
+    /**
+     * @param engine Engine used for every decision
+     * @param graded true to use {@link SpeedRuleEngine#computeMaxSpeedGraded}, false for the
+     *               WeatherType buckets of {@link SpeedRuleEngine#computeMaxSpeedCompiled}
+     */
+    public FleetRecomputeScheduler(SpeedRuleEngine engine, boolean graded) {
+        this(engine, graded, GridCell.DEFAULT_CELL_DEGREES);
+    }
+
+    public FleetRecomputeScheduler(SpeedRuleEngine engine, boolean graded, double cellDegrees) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Engine cannot be null");
+        }
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.engine = engine;
+        this.graded = graded;
+        this.cellDegrees = cellDegrees;
+    }
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a vehicle or updates its position and settings. The vehicle is marked dirty if it is
+     * new, changed cell, or its settings differ from the previous ones.
+     * Until its cell has weather, the vehicle is evaluated against worst-case weather.
+     *
+     * @return true if the vehicle is now in a cell that has no weather yet
+     * @throws IllegalArgumentException if settings is null or has null roadType/timeOfDay
+     */
+    public synchronized boolean updateVehicle(String vehicleId, double latitude, double longitude,
+                                              DriverSettings settings) {
+        if (vehicleId == null) {
+            throw new IllegalArgumentException("Vehicle id cannot be null");
+        }
+        if (settings == null || settings.getRoadType() == null || settings.getTimeOfDay() == null) {
+            throw new IllegalArgumentException("Settings with road type and time of day are required");
+        }
+
+        long cellKey = GridCell.keyOf(latitude, longitude, cellDegrees);
+        Vehicle vehicle = vehicles.get(vehicleId);
+        if (vehicle == null) {
+            vehicle = new Vehicle(vehicleId, cellKey, settings);
+            vehicles.put(vehicleId, vehicle);
+            cellFor(cellKey).vehicles.add(vehicle);
+            markDirty(vehicle);
+        } else {
+            if (vehicle.cellKey != cellKey) {
+                leaveCell(vehicle);
+                vehicle.cellKey = cellKey;
+                cellFor(cellKey).vehicles.add(vehicle);
+                markDirty(vehicle);
+            }
+            if (!sameInputs(vehicle.settings, settings)) {
+                markDirty(vehicle);
+            }
+            vehicle.settings = settings;
+        }
+        return cells.get(cellKey).weather == null;
+    }
+
+    /**
+     * @return true if the vehicle was known
+     */
+    public synchronized boolean removeVehicle(String vehicleId) {
+        Vehicle vehicle = vehicles.remove(vehicleId);
+        if (vehicle == null) {
+            return false;
+        }
+        leaveCell(vehicle);
+        vehicle.dirty = false;
+        return true;
+    }
+
+    /**
+     * Stores the weather for the cell containing the coordinates.
+     *
+     * @see #onCellWeather(long, WeatherSnapshot)
+     */
+    public boolean onWeather(double latitude, double longitude, WeatherSnapshot weather) {
+        return onCellWeather(GridCell.keyOf(latitude, longitude, cellDegrees), weather);
+    }
+
+    /**
+     * Stores the weather for a cell and marks its vehicles dirty if their decisions depend on
+     * what changed. Snapshots for cells without vehicles are dropped.
+     *
+     * @return true if vehicles were marked dirty
+     */
+    public synchronized boolean onCellWeather(long cellKey, WeatherSnapshot weather) {
+        if (weather == null) {
+            throw new IllegalArgumentException("Weather snapshot cannot be null");
+        }
+        Cell cell = cells.get(cellKey);
+        if (cell == null) {
+            return false;
+        }
+        WeatherSnapshot previous = cell.weather;
+        cell.weather = weather;
+        if (!affectsDecisions(previous, weather)) {
+            return false;
+        }
+        for (Vehicle vehicle : cell.vehicles) {
+            markDirty(vehicle);
+        }
+        return true;
+    }
+
+    /**
+     * Marks every vehicle dirty, e.g. after the engine's rules or config changed.
+     */
+    public synchronized void invalidateAll() {
+        for (Vehicle vehicle : vehicles.values()) {
+            markDirty(vehicle);
+        }
+    }
+
+    /**
+     * Evaluates every dirty vehicle and notifies subscribers of the decisions that changed.
+     *
+     * @return the changed decisions, possibly empty
+     */
+    public List<DecisionDelta> recompute() {
+        List<DecisionDelta> deltas;
+        synchronized (this) {
+            if (dirty.isEmpty()) {
+                return Collections.emptyList();
+            }
+            deltas = new ArrayList<>();
+            for (Vehicle vehicle : dirty) {
+                if (!vehicle.dirty) {
+                    continue;
+                }
+                vehicle.dirty = false;
+                WeatherSnapshot weather = cells.get(vehicle.cellKey).weather;
+                if (weather == null) {
+                    // The cell's first snapshot marks the vehicle dirty again.
+                    weather = WeatherSnapshot.WORST_CASE;
+                }
+                SpeedDecision previous = vehicle.decision;
+                SpeedDecision current = evaluate(vehicle, weather);
+                vehicle.decision = current;
+                if (previous == null || previous.getMaxSpeedKmh() != current.getMaxSpeedKmh()
+                        || !previous.getReason().equals(current.getReason())) {
+                    deltas.add(new DecisionDelta(vehicle.id, previous, current));
+                }
+            }
+            dirty.clear();
+        }
+
+        List<DecisionDelta> published = Collections.unmodifiableList(deltas);
+        if (!published.isEmpty()) {
+            for (Listener listener : listeners) {
+                listener.onDeltas(published);
+            }
+        }
+        return published;
+    }
+
+    /**
+     * @return the last decision computed for the vehicle, or null if unknown or not computed yet
+     */
+    public synchronized SpeedDecision getDecision(String vehicleId) {
+        Vehicle vehicle = vehicles.get(vehicleId);
+        return vehicle != null ? vehicle.decision : null;
+    }
+
+    public synchronized int getVehicleCount() {
+        return vehicles.size();
+    }
+
+    /**
+     * @return vehicles waiting for the next recompute
+     */
+    public synchronized int getDirtyCount() {
+        return dirty.size();
+    }
+
+    public synchronized int getCellCount() {
+        return cells.size();
+    }
+
+    private SpeedDecision evaluate(Vehicle vehicle, WeatherSnapshot weather) {
+        return graded
+                ? engine.computeMaxSpeedGraded(vehicle.settings, weather)
+                : engine.computeMaxSpeedCompiled(vehicle.settings, weather);
+    }
+
+    private boolean affectsDecisions(WeatherSnapshot previous, WeatherSnapshot next) {
+        if (previous == null || previous.getWeatherType() != next.getWeatherType()) {
+            return true;
+        }
+        return graded && (GradedWeatherPenalty.precipitationPenalty(previous.getPrecipitationMm())
+                != GradedWeatherPenalty.precipitationPenalty(next.getPrecipitationMm())
+                || GradedWeatherPenalty.coldPenalty(previous) != GradedWeatherPenalty.coldPenalty(next));
+    }
+
+    private static boolean sameInputs(DriverSettings a, DriverSettings b) {
+        return a.getRoadType() == b.getRoadType()
+                && a.getTimeOfDay() == b.getTimeOfDay()
+                && Objects.equals(a.getBaseSpeed(), b.getBaseSpeed())
+                && Objects.equals(a.getMinAllowedSpeed(), b.getMinAllowedSpeed())
+                && Objects.equals(a.getMaxAllowedSpeed(), b.getMaxAllowedSpeed());
+    }
+
+    private void markDirty(Vehicle vehicle) {
+        if (!vehicle.dirty) {
+            vehicle.dirty = true;
+            dirty.add(vehicle);
+        }
+    }
+
+    private Cell cellFor(long cellKey) {
+        Cell cell = cells.get(cellKey);
+        if (cell == null) {
+            cell = new Cell();
+            cells.put(cellKey, cell);
+        }
+        return cell;
+    }
+
+    private void leaveCell(Vehicle vehicle) {
+        Cell cell = cells.get(vehicle.cellKey);
+        cell.vehicles.remove(vehicle);
+        if (cell.vehicles.isEmpty()) {
+            cells.remove(vehicle.cellKey);
+        }
+    }
+
+    private static final class Vehicle {
+        final String id;
+        long cellKey;
+        DriverSettings settings;
+        SpeedDecision decision;
+        boolean dirty;
+
+        Vehicle(String id, long cellKey, DriverSettings settings) {
+            this.id = id;
+            this.cellKey = cellKey;
+            this.settings = settings;
+        }
+    }
+
+    private static final class Cell {
+        final Set<Vehicle> vehicles = new LinkedHashSet<>();
+        WeatherSnapshot weather;
+    }
+}
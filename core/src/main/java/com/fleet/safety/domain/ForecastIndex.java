@@ -0,0 +1,88 @@
+package com.fleet.safety.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hourly weather forecasts indexed by (grid cell, hour), so conditions at a projected position
+ * and time are a map lookup plus an array index instead of a network call.
+ */
+public class ForecastIndex {
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    private final double cellDegrees;
+    private final Map<Long, HourlySeries> seriesByCell;
+
+    private ForecastIndex(double cellDegrees, Map<Long, HourlySeries> seriesByCell) {
+        this.cellDegrees = cellDegrees;
+        this.seriesByCell = seriesByCell;
+    }
+
+    /**
+     * @return the forecast for the hour containing epochMillis in the cell containing the
+     *         coordinates, or null if the index does not cover it
+     */
+    public WeatherSnapshot find(double latitude, double longitude, long epochMillis) {
+        return find(GridCell.keyOf(latitude, longitude, cellDegrees), epochMillis);
+    }
+
+    public WeatherSnapshot find(long cellKey, long epochMillis) {
+        HourlySeries series = seriesByCell.get(cellKey);
+        if (series == null) {
+            return null;
+        }
+        long hour = Math.floorDiv(epochMillis, HOUR_MILLIS) - series.firstHour;
+        if (hour < 0 || hour >= series.hours.length) {
+            return null;
+        }
+        return series.hours[(int) hour];
+    }
+
+    public double getCellDegrees() {
+        return cellDegrees;
+    }
+
+    public int cellCount() {
+        return seriesByCell.size();
+    }
+
+    public static Builder builder(double cellDegrees) {
+        return new Builder(cellDegrees);
+    }
+
+    public static class Builder {
+        private final double cellDegrees;
+        private final Map<Long, HourlySeries> seriesByCell = new HashMap<>();
+
+        private Builder(double cellDegrees) {
+            if (cellDegrees <= 0) {
+                throw new IllegalArgumentException("Cell size must be positive");
+            }
+            this.cellDegrees = cellDegrees;
+        }
+
+        /**
+         * Adds consecutive hourly snapshots for a cell, the first one covering the hour that
+         * contains firstHourMillis. Entries may be null for hours without data.
+         */
+        public Builder withSeries(long cellKey, long firstHourMillis, WeatherSnapshot[] hourly) {
+            seriesByCell.put(cellKey, new HourlySeries(Math.floorDiv(firstHourMillis, HOUR_MILLIS), hourly.clone()));
+            return this;
+        }
+
+        public ForecastIndex build() {
+            return new ForecastIndex(cellDegrees, new HashMap<>(seriesByCell));
+        }
+    }
+
+    private static final class HourlySeries {
+        final long firstHour;
+        final WeatherSnapshot[] hours;
+
+        HourlySeries(long firstHour, WeatherSnapshot[] hours) {
+            this.firstHour = firstHour;
+            this.hours = hours;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.fleet.safety.domain;
+
+/**
+ * Weather penalty that grows with the measured precipitation and falling temperature, instead
+ * of one fixed value per WeatherType.
+ *
+ * Both curves are piecewise-linear over the breakpoints below and are sampled once into int
+ * lookup tables, so a penalty is two index computations and two array reads. Inputs outside
+ * the sampled range use the nearest end of the table.
+ *
+ * The temperature curve models freezing moisture, so it only applies when there is moisture:
+ * measured precipitation, or snow or ice reported. Dry cold on its own costs nothing.
+ */
+public final class GradedWeatherPenalty {
+
+    /**
+     * Upper bound of the combined penalty; matches the largest bucket penalty (ICE).
+     */
+    public static final int MAX_PENALTY = 30;
+
+    // Precipitation in mm/h → penalty in km/h.
+    private static final double[] PRECIPITATION_MM = {0.0, 0.2, 1.0, 4.0, 10.0, 25.0};
+    private static final double[] PRECIPITATION_PENALTY = {0.0, 3.0, 8.0, 14.0, 22.0, 30.0};
+    private static final double PRECIPITATION_STEP_MM = 0.1;
+
+    // Temperature in °C → penalty in km/h; the steep part covers the freezing range.
+    private static final double[] TEMPERATURE_C = {-15.0, -5.0, 0.0, 2.0, 4.0};
+    private static final double[] TEMPERATURE_PENALTY = {30.0, 28.0, 20.0, 6.0, 0.0};
+    private static final double TEMPERATURE_STEP_C = 0.25;
+
+    private static final int[] PRECIPITATION_LUT = sample(PRECIPITATION_MM, PRECIPITATION_PENALTY,
+            PRECIPITATION_STEP_MM);
+    private static final int[] TEMPERATURE_LUT = sample(TEMPERATURE_C, TEMPERATURE_PENALTY, TEMPERATURE_STEP_C);
+
+    private static final double PRECIPITATION_MIN = PRECIPITATION_MM[0];
+    private static final double TEMPERATURE_MIN = TEMPERATURE_C[0];
+
+    private GradedWeatherPenalty() {
+    }
+
+    /**
+     * @return combined penalty in km/h, capped at {@link #MAX_PENALTY}
+     */
+    public static int penaltyFor(WeatherSnapshot weather) {
+        return Math.min(MAX_PENALTY, precipitationPenalty(weather.getPrecipitationMm()) + coldPenalty(weather));
+    }
+
+    /**
+     * @return the temperature penalty if the snapshot has moisture that can freeze, otherwise 0
+     */
+    public static int coldPenalty(WeatherSnapshot weather) {
+        return hasMoisture(weather) ? temperaturePenalty(weather.getTemperatureCelsius()) : 0;
+    }
+
+    public static int precipitationPenalty(double precipitationMm) {
+        return PRECIPITATION_LUT[index(precipitationMm, PRECIPITATION_MIN, PRECIPITATION_STEP_MM,
+                PRECIPITATION_LUT.length)];
+    }
+
+    public static int temperaturePenalty(double temperatureCelsius) {
+        return TEMPERATURE_LUT[index(temperatureCelsius, TEMPERATURE_MIN, TEMPERATURE_STEP_C,
+                TEMPERATURE_LUT.length)];
+    }
+
+    private static boolean hasMoisture(WeatherSnapshot weather) {
+        return weather.getPrecipitationMm() > 0.0
+                || weather.getWeatherType() == WeatherType.SNOW
+                || weather.getWeatherType() == WeatherType.ICE;
+    }
+
+    // Rounds to the nearest sample and clamps with min/max, which compile to conditional moves.
+    // NaN casts to 0 and maps to the first entry.
+    private static int index(double value, double min, double step, int length) {
+        int index = (int) ((value - min) / step + 0.5);
+        return Math.max(0, Math.min(length - 1, index));
+    }
+
+    private static int[] sample(double[] x, double[] y, double step) {
+        int length = (int) Math.round((x[x.length - 1] - x[0]) / step) + 1;
+        int[] table = new int[length];
+        int segment = 0;
+        for (int i = 0; i < length; i++) {
+            double value = x[0] + i * step;
+            while (segment < x.length - 2 && value > x[segment + 1]) {
+                segment++;
+            }
+            double t = (value - x[segment]) / (x[segment + 1] - x[segment]);
+            t = Math.max(0.0, Math.min(1.0, t));
+            table[i] = (int) Math.round(y[segment] + t * (y[segment + 1] - y[segment]));
+        }
+        return table;
+    }
+}
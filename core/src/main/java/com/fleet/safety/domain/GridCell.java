@@ -0,0 +1,90 @@
+package com.fleet.safety.domain;
+
+import java.util.Collection;
+
+/**
+ * Snaps coordinates to a square lat/lon grid and packs the cell into a single long key,
+ * so nearby positions can share cached weather without allocating a key object.
+ */
+public final class GridCell {
+
+    /**
+     * Default cell size in degrees, roughly 5 km in latitude.
+     */
+    public static final double DEFAULT_CELL_DEGREES = 0.05;
+
+    private GridCell() {
+    }
+
+    /**
+     * @return the key of the cell containing the given coordinates
+     */
+    public static long keyOf(double latitude, double longitude, double cellDegrees) {
+        return keyOf((int) Math.floor(latitude / cellDegrees), (int) Math.floor(longitude / cellDegrees));
+    }
+
+    public static long keyOf(double latitude, double longitude) {
+        return keyOf(latitude, longitude, DEFAULT_CELL_DEGREES);
+    }
+
+    private static long keyOf(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds the key of every cell the straight segment between two points passes through, in
+     * order from the first point to the second. Where the segment crosses exactly through a
+     * cell corner, one of the two side cells is added as well.
+     */
+    public static void addCellsAlong(double fromLatitude, double fromLongitude, double toLatitude,
+                                     double toLongitude, double cellDegrees, Collection<Long> out) {
+        // Grid traversal (Amanatides & Woo) in cell units: x is the column axis, y the row axis.
+        double x = fromLongitude / cellDegrees;
+        double y = fromLatitude / cellDegrees;
+        double dx = toLongitude / cellDegrees - x;
+        double dy = toLatitude / cellDegrees - y;
+        int column = (int) Math.floor(x);
+        int row = (int) Math.floor(y);
+        int steps = Math.abs((int) Math.floor(x + dx) - column) + Math.abs((int) Math.floor(y + dy) - row);
+
+        int stepColumn = dx > 0 ? 1 : -1;
+        int stepRow = dy > 0 ? 1 : -1;
+        double tDeltaX = dx != 0 ? 1.0 / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0 ? 1.0 / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        double tMaxX = dx > 0 ? (column + 1 - x) * tDeltaX : dx < 0 ? (x - column) * tDeltaX : Double.POSITIVE_INFINITY;
+        double tMaxY = dy > 0 ? (row + 1 - y) * tDeltaY : dy < 0 ? (y - row) * tDeltaY : Double.POSITIVE_INFINITY;
+
+        out.add(keyOf(row, column));
+        for (int i = 0; i < steps; i++) {
+            if (tMaxX < tMaxY) {
+                column += stepColumn;
+                tMaxX += tDeltaX;
+            } else {
+                row += stepRow;
+                tMaxY += tDeltaY;
+            }
+            out.add(keyOf(row, column));
+        }
+    }
+
+    public static int rowOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int columnOf(long key) {
+        return (int) key;
+    }
+
+    public static double centerLatitude(long key, double cellDegrees) {
+        return roundMicroDegrees((rowOf(key) + 0.5) * cellDegrees);
+    }
+
+    public static double centerLongitude(long key, double cellDegrees) {
+        return roundMicroDegrees((columnOf(key) + 0.5) * cellDegrees);
+    }
+
+    // Drops floating-point noise so centers print as short decimals in request URLs.
+    private static double roundMicroDegrees(double degrees) {
+        return Math.round(degrees * 1e6) / 1e6;
+    }
+}
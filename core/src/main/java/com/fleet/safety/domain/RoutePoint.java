@@ -0,0 +1,28 @@
+package com.fleet.safety.domain;
+
+/**
+ * A planned waypoint and the time the vehicle is expected to reach it.
+ */
+public class RoutePoint {
+    private final double latitude;
+    private final double longitude;
+    private final long expectedAtMillis;
+
+    public RoutePoint(double latitude, double longitude, long expectedAtMillis) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.expectedAtMillis = expectedAtMillis;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public long getExpectedAtMillis() {
+        return expectedAtMillis;
+    }
+}
@@ -0,0 +1,213 @@
+package com.fleet.safety.domain;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Parses the line-based speed rule format into a {@link CompiledRuleSet}.
+ *
+ * <pre>
+ * # comments and blank lines are ignored
+ * version 2
+ * base 80
+ * clamp 20 110
+ * rule gravel   when road=GRAVEL penalty 20
+ * rule freezing when weather=RAIN,SNOW temp&lt;=0 penalty 15
+ * rule downpour when precip&gt;=10 penalty 10
+ * rule black-ice when weather=ICE temp&lt;=-5 penalty 0 clamp 20 40
+ * </pre>
+ *
+ * A rule without "when" always applies. Enum conditions take comma-separated names;
+ * temp (°C) and precip (mm) accept &lt;, &lt;=, &gt; and &gt;=, and several conditions on the same
+ * rule must all hold. Penalties are subtracted from the base in rule order. A rule's optional
+ * clamp bounds the result while the rule matches, before the global clamp is applied.
+ * Malformed input fails with IllegalArgumentException naming the line.
+ */
+public final class RuleSetParser {
+
+    /**
+     * Rules equivalent to the constants hardcoded in {@link SpeedRuleEngine}.
+     */
+    public static final String DEFAULT_RULES = ""
+            + "version 1\n"
+            + "base " + SpeedRuleEngine.DEFAULT_BASE_SPEED + "\n"
+            + "clamp " + SpeedRuleEngine.GLOBAL_MIN_SPEED + " " + SpeedRuleEngine.GLOBAL_MAX_SPEED + "\n"
+            + "rule gravel when road=GRAVEL penalty " + SpeedRuleEngine.GRAVEL_PENALTY + "\n"
+            + "rule night when time=NIGHT penalty " + SpeedRuleEngine.NIGHT_PENALTY + "\n"
+            + "rule rain when weather=RAIN penalty " + SpeedRuleEngine.RAIN_PENALTY + "\n"
+            + "rule snow when weather=SNOW penalty " + SpeedRuleEngine.SNOW_PENALTY + "\n"
+            + "rule ice when weather=ICE penalty " + SpeedRuleEngine.ICE_PENALTY + "\n";
+
+    private RuleSetParser() {
+    }
+
+    public static CompiledRuleSet parse(String text) {
+        try {
+            return parse(new StringReader(text));
+        } catch (IOException e) {
+            throw new IllegalStateException("StringReader cannot fail", e);
+        }
+    }
+
+    public static CompiledRuleSet load(File file) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    public static CompiledRuleSet parse(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        CompiledRuleSet.Builder builder = CompiledRuleSet.builder();
+        String line;
+        int lineNumber = 0;
+
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                continue;
+            }
+
+            try {
+                switch (tokens[0]) {
+                    case "version":
+                        expectLength(tokens, 2);
+                        builder.withVersion(parseInt(tokens[1]));
+                        break;
+                    case "base":
+                        expectLength(tokens, 2);
+                        builder.withBaseSpeed(parseInt(tokens[1]));
+                        break;
+                    case "clamp":
+                        expectLength(tokens, 3);
+                        builder.withClamp(parseInt(tokens[1]), parseInt(tokens[2]));
+                        break;
+                    case "rule":
+                        parseRule(tokens, builder);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown directive '" + tokens[0] + "'");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule set line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static void parseRule(String[] tokens, CompiledRuleSet.Builder builder) {
+        int end = tokens.length;
+        int minSpeed = CompiledRuleSet.NO_MIN_SPEED;
+        int maxSpeed = CompiledRuleSet.NO_MAX_SPEED;
+        // The clamp keyword only counts right after "penalty <n>", so a rule may be labeled "clamp".
+        if (end >= 7 && "clamp".equals(tokens[end - 3]) && "penalty".equals(tokens[end - 5])) {
+            minSpeed = parseInt(tokens[end - 2]);
+            maxSpeed = parseInt(tokens[end - 1]);
+            if (minSpeed > maxSpeed) {
+                throw new IllegalArgumentException("clamp minimum cannot be greater than clamp maximum");
+            }
+            end -= 3;
+        }
+        if (end < 4 || !"penalty".equals(tokens[end - 2])) {
+            throw new IllegalArgumentException(
+                    "expected 'rule <label> [when <conditions>] penalty <n> [clamp <min> <max>]'");
+        }
+        String label = tokens[1];
+        int penalty = parseInt(tokens[end - 1]);
+        if (penalty < 0) {
+            throw new IllegalArgumentException("penalty cannot be negative");
+        }
+
+        int roadMask = CompiledRuleSet.ANY;
+        int timeMask = CompiledRuleSet.ANY;
+        int weatherMask = CompiledRuleSet.ANY;
+        double[] temperature = {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] precipitation = {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+
+        int conditionsEnd = end - 2;
+        if (conditionsEnd > 2) {
+            if (!"when".equals(tokens[2]) || conditionsEnd == 3) {
+                throw new IllegalArgumentException("expected 'when' followed by conditions");
+            }
+            for (int i = 3; i < conditionsEnd; i++) {
+                String condition = tokens[i];
+                if (condition.startsWith("road=")) {
+                    roadMask &= enumMask(RoadType.class, condition.substring(5));
+                } else if (condition.startsWith("time=")) {
+                    timeMask &= enumMask(TimeOfDay.class, condition.substring(5));
+                } else if (condition.startsWith("weather=")) {
+                    weatherMask &= enumMask(WeatherType.class, condition.substring(8));
+                } else if (condition.startsWith("temp")) {
+                    narrowRange(temperature, condition.substring(4));
+                } else if (condition.startsWith("precip")) {
+                    narrowRange(precipitation, condition.substring(6));
+                } else {
+                    throw new IllegalArgumentException("unknown condition '" + condition + "'");
+                }
+            }
+        }
+
+        builder.addRule(label, roadMask, timeMask, weatherMask, temperature[0], temperature[1],
+                precipitation[0], precipitation[1], penalty, minSpeed, maxSpeed);
+    }
+
+    private static <E extends Enum<E>> int enumMask(Class<E> type, String names) {
+        int mask = 0;
+        for (String name : names.split(",")) {
+            try {
+                mask |= 1 << Enum.valueOf(type, name.toUpperCase(Locale.ROOT)).ordinal();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown " + type.getSimpleName() + " '" + name + "'");
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Intersects range [min, max) with a comparison such as "&lt;=0" or "&gt;2.5".
+     */
+    private static void narrowRange(double[] range, String comparison) {
+        boolean inclusive = comparison.length() > 1 && comparison.charAt(1) == '=';
+        if (comparison.isEmpty() || (comparison.charAt(0) != '<' && comparison.charAt(0) != '>')) {
+            throw new IllegalArgumentException("expected <, <=, > or >= in '" + comparison + "'");
+        }
+        double value;
+        try {
+            value = Double.parseDouble(comparison.substring(inclusive ? 2 : 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid threshold in '" + comparison + "'");
+        }
+
+        if (comparison.charAt(0) == '<') {
+            range[1] = Math.min(range[1], inclusive ? Math.nextUp(value) : value);
+        } else {
+            range[0] = Math.max(range[0], inclusive ? value : Math.nextUp(value));
+        }
+    }
+
+    private static int parseInt(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("expected a number, got '" + token + "'");
+        }
+    }
+
+    private static void expectLength(String[] tokens, int length) {
+        if (tokens.length != length) {
+            throw new IllegalArgumentException("'" + tokens[0] + "' expects " + (length - 1) + " value(s)");
+        }
+    }
+}
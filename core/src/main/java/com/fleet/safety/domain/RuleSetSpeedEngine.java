@@ -0,0 +1,89 @@
+package com.fleet.safety.domain;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Speed engine driven by a {@link CompiledRuleSet} instead of hardcoded penalties.
+ *
+ * The active rule set can be replaced at any time. Each evaluation reads the reference once,
+ * so a concurrent swap never mixes rules from two sets in one result.
+ */
+public class RuleSetSpeedEngine implements SpeedEvaluator {
+
+    private static final WeatherSnapshot DEFAULT_WEATHER = new WeatherSnapshot(20.0, 0.0, WeatherType.CLEAR);
+
+    private final AtomicReference<CompiledRuleSet> activeRuleSet;
+
+    /**
+     * Starts with {@link RuleSetParser#DEFAULT_RULES}, which match {@link SpeedRuleEngine}.
+     */
+    public RuleSetSpeedEngine() {
+        this(RuleSetParser.parse(RuleSetParser.DEFAULT_RULES));
+    }
+
+    public RuleSetSpeedEngine(CompiledRuleSet ruleSet) {
+        if (ruleSet == null) {
+            throw new IllegalArgumentException("Rule set cannot be null");
+        }
+        this.activeRuleSet = new AtomicReference<>(ruleSet);
+    }
+
+    public CompiledRuleSet getActiveRuleSet() {
+        return activeRuleSet.get();
+    }
+
+    /**
+     * Atomically replaces the active rule set.
+     *
+     * @return the rule set that was active before
+     */
+    public CompiledRuleSet swap(CompiledRuleSet ruleSet) {
+        if (ruleSet == null) {
+            throw new IllegalArgumentException("Rule set cannot be null");
+        }
+        return activeRuleSet.getAndSet(ruleSet);
+    }
+
+    /**
+     * Parses the file and makes it the active rule set. On a parse error the current rule set
+     * stays active.
+     */
+    public CompiledRuleSet load(File file) throws IOException {
+        return swap(RuleSetParser.load(file));
+    }
+
+    /**
+     * Same contract as {@link SpeedRuleEngine#computeMaxSpeed(DriverSettings, WeatherSnapshot)};
+     * the reason lists the labels of the matching rules.
+     */
+    @Override
+    public SpeedDecision computeMaxSpeed(DriverSettings settings, WeatherSnapshot weather) {
+        if (settings == null) {
+            throw new IllegalArgumentException("Driver settings cannot be null");
+        }
+        if (settings.getRoadType() == null) {
+            throw new IllegalArgumentException("Road type cannot be null in driver settings");
+        }
+        if (settings.getTimeOfDay() == null) {
+            throw new IllegalArgumentException("Time of day cannot be null in driver settings");
+        }
+
+        return activeRuleSet.get().evaluate(settings.getRoadType(), settings.getTimeOfDay(),
+                weather != null ? weather : DEFAULT_WEATHER,
+                settings.getBaseSpeed(), settings.getMinAllowedSpeed(), settings.getMaxAllowedSpeed());
+    }
+
+    /**
+     * Allocation-free evaluation against the active rule set.
+     *
+     * @see CompiledRuleSet#computeSpeedKmh
+     */
+    public int computeSpeedKmh(RoadType roadType, TimeOfDay timeOfDay, WeatherType weatherType,
+                               double temperatureCelsius, double precipitationMm,
+                               int baseSpeed, int minAllowedSpeed, int maxAllowedSpeed) {
+        return activeRuleSet.get().computeSpeedKmh(roadType.ordinal(), timeOfDay.ordinal(), weatherType.ordinal(),
+                temperatureCelsius, precipitationMm, baseSpeed, minAllowedSpeed, maxAllowedSpeed);
+    }
+}
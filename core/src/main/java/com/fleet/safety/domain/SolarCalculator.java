@@ -0,0 +1,173 @@
+package com.fleet.safety.domain;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Derives DAY or NIGHT from coordinates and a timestamp using the sunrise equation
+ * (NOAA approximation, sun centre at -0.833° for refraction and disc radius).
+ *
+ * Results are cached per grid cell as the interval [previous transition, next transition),
+ * so while a vehicle stays in its cell a check is a key compare and two long compares.
+ * The trigonometry only runs when the vehicle enters a new cell or crosses sunrise/sunset.
+ * Transitions are computed for the cell centre; within a default-sized cell they differ from
+ * the exact position by well under a minute.
+ *
+ * The cache is a fixed-size direct-mapped table of immutable entries published through an
+ * AtomicReferenceArray. Lookups take no lock and do not allocate; a miss allocates one entry.
+ * Threads that miss on the same slot at once each compute it and the last write wins, which
+ * only costs a repeated computation. One instance can be shared by any number of threads.
+ */
+public final class SolarCalculator {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final double UNIX_EPOCH_JULIAN_DATE = 2440587.5;
+    private static final double J2000_JULIAN_DATE = 2451545.0;
+    private static final double SIN_HORIZON = Math.sin(Math.toRadians(-0.833));
+    private static final double SIN_OBLIQUITY = Math.sin(Math.toRadians(23.4397));
+
+    private final double cellDegrees;
+    private final int mask;
+    private final AtomicReferenceArray<Interval> intervals;
+
+    public SolarCalculator() {
+        this(DEFAULT_CAPACITY, GridCell.DEFAULT_CELL_DEGREES);
+    }
+
+    /**
+     * @param capacity number of cached cells, rounded up to a power of two
+     */
+    public SolarCalculator(int capacity, double cellDegrees) {
+        if (capacity <= 0 || cellDegrees <= 0) {
+            throw new IllegalArgumentException("Capacity and cell size must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.cellDegrees = cellDegrees;
+        this.mask = size - 1;
+        this.intervals = new AtomicReferenceArray<>(size);
+    }
+
+    public TimeOfDay timeOfDay(double latitude, double longitude, long epochMillis) {
+        return isNight(latitude, longitude, epochMillis) ? TimeOfDay.NIGHT : TimeOfDay.DAY;
+    }
+
+    public boolean isNight(double latitude, double longitude, long epochMillis) {
+        return intervalFor(latitude, longitude, epochMillis).night;
+    }
+
+    /**
+     * @return the instant of the next sunrise or sunset at the given position; during polar
+     * day or night, the next UTC midnight, when the check is repeated
+     */
+    public long nextTransitionMillis(double latitude, double longitude, long epochMillis) {
+        return intervalFor(latitude, longitude, epochMillis).validUntil;
+    }
+
+    private Interval intervalFor(double latitude, double longitude, long epochMillis) {
+        long key = GridCell.keyOf(latitude, longitude, cellDegrees);
+        int slot = slotOf(key);
+        Interval cached = intervals.get(slot);
+        if (cached != null && cached.key == key && epochMillis >= cached.validFrom && epochMillis < cached.validUntil) {
+            return cached;
+        }
+
+        Interval computed = computeInterval(key, GridCell.centerLatitude(key, cellDegrees),
+                GridCell.centerLongitude(key, cellDegrees), epochMillis);
+        intervals.set(slot, computed);
+        return computed;
+    }
+
+    private int slotOf(long key) {
+        int hash = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Finds the sunrise/sunset events around the given instant, scanning the surrounding UTC
+     * days so the interval is found whatever the longitude.
+     */
+    private static Interval computeInterval(long key, double latitude, double longitude, long epochMillis) {
+        long day = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        long previous = Long.MIN_VALUE;
+        boolean previousIsSunrise = false;
+        long next = Long.MAX_VALUE;
+        boolean nextIsSunrise = false;
+        double sinLatitude = Math.sin(Math.toRadians(latitude));
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        boolean polarNight = false;
+
+        for (long d = day - 1; d <= day + 1; d++) {
+            double meanSolarTime = d - (J2000_JULIAN_DATE - UNIX_EPOCH_JULIAN_DATE - 0.5) - longitude / 360.0;
+            double meanAnomaly = Math.toRadians((357.5291 + 0.98560028 * meanSolarTime) % 360.0);
+            double center = 1.9148 * Math.sin(meanAnomaly) + 0.0200 * Math.sin(2 * meanAnomaly)
+                    + 0.0003 * Math.sin(3 * meanAnomaly);
+            double eclipticLongitude = Math.toRadians(
+                    (Math.toDegrees(meanAnomaly) + center + 180.0 + 102.9372) % 360.0);
+            double transit = J2000_JULIAN_DATE + meanSolarTime + 0.0053 * Math.sin(meanAnomaly)
+                    - 0.0069 * Math.sin(2 * eclipticLongitude);
+            double sinDeclination = Math.sin(eclipticLongitude) * SIN_OBLIQUITY;
+            double cosDeclination = Math.sqrt(1 - sinDeclination * sinDeclination);
+            double cosHourAngle = (SIN_HORIZON - sinLatitude * sinDeclination) / (cosLatitude * cosDeclination);
+
+            if (cosHourAngle > 1 || cosHourAngle < -1) {
+                if (d == day) {
+                    polarNight = cosHourAngle > 1;
+                }
+                continue;
+            }
+
+            double halfDay = Math.toDegrees(Math.acos(cosHourAngle)) / 360.0;
+            long sunrise = toEpochMillis(transit - halfDay);
+            long sunset = toEpochMillis(transit + halfDay);
+
+            if (sunrise <= epochMillis && sunrise > previous) {
+                previous = sunrise;
+                previousIsSunrise = true;
+            } else if (sunrise > epochMillis && sunrise < next) {
+                next = sunrise;
+                nextIsSunrise = true;
+            }
+            if (sunset <= epochMillis && sunset > previous) {
+                previous = sunset;
+                previousIsSunrise = false;
+            } else if (sunset > epochMillis && sunset < next) {
+                next = sunset;
+                nextIsSunrise = false;
+            }
+        }
+
+        long dayStart = day * MILLIS_PER_DAY;
+        if (previous == Long.MIN_VALUE) {
+            // Polar day or night: no earlier event nearby, so keep the answer for this UTC day only.
+            return new Interval(key, dayStart, Math.min(next, dayStart + MILLIS_PER_DAY),
+                    next != Long.MAX_VALUE ? nextIsSunrise : polarNight);
+        }
+        return new Interval(key, previous, next != Long.MAX_VALUE ? next : dayStart + MILLIS_PER_DAY,
+                !previousIsSunrise);
+    }
+
+    private static long toEpochMillis(double julianDate) {
+        return Math.round((julianDate - UNIX_EPOCH_JULIAN_DATE) * MILLIS_PER_DAY);
+    }
+
+    /**
+     * Day or night for one cell over [validFrom, validUntil).
+     */
+    private static final class Interval {
+        final long key;
+        final long validFrom;
+        final long validUntil;
+        final boolean night;
+
+        Interval(long key, long validFrom, long validUntil, boolean night) {
+            this.key = key;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+            this.night = night;
+        }
+    }
+}
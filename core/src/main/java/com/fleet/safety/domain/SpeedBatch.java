@@ -0,0 +1,82 @@
+package com.fleet.safety.domain;
+
+/**
+ * Column-oriented input for bulk speed evaluation: one entry per vehicle, spread over
+ * parallel primitive arrays instead of DriverSettings/WeatherSnapshot objects.
+ *
+ * Enum columns hold ordinals of RoadType, TimeOfDay and WeatherType. Speed columns use
+ * {@link SpeedRuleEngine#UNSET} for "no value" (default base speed, or no admin bound).
+ * The min/max columns may be null when no vehicle has admin bounds.
+ */
+public final class SpeedBatch {
+
+    private final int[] roadOrdinals;
+    private final int[] timeOrdinals;
+    private final int[] weatherOrdinals;
+    private final int[] baseSpeeds;
+    private final int[] minSpeeds;
+    private final int[] maxSpeeds;
+    private final int size;
+
+    private String[] reasons;
+
+    public SpeedBatch(int[] roadOrdinals, int[] timeOrdinals, int[] weatherOrdinals,
+                      int[] baseSpeeds, int[] minSpeeds, int[] maxSpeeds) {
+        if (roadOrdinals == null || timeOrdinals == null || weatherOrdinals == null || baseSpeeds == null) {
+            throw new IllegalArgumentException("Road, time, weather and base columns cannot be null");
+        }
+
+        this.size = roadOrdinals.length;
+        if (timeOrdinals.length != size || weatherOrdinals.length != size || baseSpeeds.length != size
+                || (minSpeeds != null && minSpeeds.length != size)
+                || (maxSpeeds != null && maxSpeeds.length != size)) {
+            throw new IllegalArgumentException("All batch columns must have the same length");
+        }
+
+        this.roadOrdinals = roadOrdinals;
+        this.timeOrdinals = timeOrdinals;
+        this.weatherOrdinals = weatherOrdinals;
+        this.baseSpeeds = baseSpeeds;
+        this.minSpeeds = minSpeeds;
+        this.maxSpeeds = maxSpeeds;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int roadOrdinal(int index) {
+        return roadOrdinals[index];
+    }
+
+    public int timeOrdinal(int index) {
+        return timeOrdinals[index];
+    }
+
+    public int weatherOrdinal(int index) {
+        return weatherOrdinals[index];
+    }
+
+    public int baseSpeed(int index) {
+        return baseSpeeds[index];
+    }
+
+    public int minSpeed(int index) {
+        return minSpeeds != null ? minSpeeds[index] : SpeedRuleEngine.UNSET;
+    }
+
+    public int maxSpeed(int index) {
+        return maxSpeeds != null ? maxSpeeds[index] : SpeedRuleEngine.UNSET;
+    }
+
+    String cachedReason(int index) {
+        return reasons != null ? reasons[index] : null;
+    }
+
+    void cacheReason(int index, String reason) {
+        if (reasons == null) {
+            reasons = new String[size];
+        }
+        reasons[index] = reason;
+    }
+}
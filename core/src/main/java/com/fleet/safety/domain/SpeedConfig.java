@@ -0,0 +1,58 @@
+package com.fleet.safety.domain;
+
+/**
+ * Immutable snapshot of the admin speed configuration (base speed and allowed bounds).
+ *
+ * Snapshots are published by {@link SpeedRuleEngine#publishConfig}; each publication gets the
+ * next version number, so readers can tell whether the configuration changed by comparing
+ * versions. Null values mean "use the engine default" or "no bound", as in DriverSettings.
+ */
+public final class SpeedConfig {
+
+    /**
+     * Configuration before anything is published: default base speed, no admin bounds.
+     */
+    public static final SpeedConfig INITIAL = new SpeedConfig(0L, null, null, null);
+
+    private final long version;
+    private final Integer baseSpeed;
+    private final Integer minAllowedSpeed;
+    private final Integer maxAllowedSpeed;
+
+    private SpeedConfig(long version, Integer baseSpeed, Integer minAllowedSpeed, Integer maxAllowedSpeed) {
+        this.version = version;
+        this.baseSpeed = baseSpeed;
+        this.minAllowedSpeed = minAllowedSpeed;
+        this.maxAllowedSpeed = maxAllowedSpeed;
+    }
+
+    SpeedConfig next(Integer baseSpeed, Integer minAllowedSpeed, Integer maxAllowedSpeed) {
+        return new SpeedConfig(version + 1, baseSpeed, minAllowedSpeed, maxAllowedSpeed);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Integer getBaseSpeed() {
+        return baseSpeed;
+    }
+
+    public Integer getMinAllowedSpeed() {
+        return minAllowedSpeed;
+    }
+
+    public Integer getMaxAllowedSpeed() {
+        return maxAllowedSpeed;
+    }
+
+    @Override
+    public String toString() {
+        return "SpeedConfig{" +
+                "version=" + version +
+                ", baseSpeed=" + baseSpeed +
+                ", minAllowedSpeed=" + minAllowedSpeed +
+                ", maxAllowedSpeed=" + maxAllowedSpeed +
+                '}';
+    }
+}
@@ -0,0 +1,164 @@
+package com.fleet.safety.domain;
+
+import java.util.Locale;
+
+public class SpeedDecision {
+
+    static final int GRAVEL = 1;
+    static final int NIGHT = 1 << 1;
+    static final int WEATHER = 1 << 2;
+    static final int CLAMPED_TO_GLOBAL_MIN = 1 << 3;
+    static final int CLAMPED_TO_GLOBAL_MAX = 1 << 4;
+    static final int ADMIN_BOUNDS_APPLIED = 1 << 5;
+    static final int HAS_MIN_BOUND = 1 << 6;
+    static final int HAS_MAX_BOUND = 1 << 7;
+    static final int GRADED_PRECIPITATION = 1 << 8;
+    static final int GRADED_TEMPERATURE = 1 << 9;
+    private static final int GRADED = GRADED_PRECIPITATION | GRADED_TEMPERATURE;
+    private static final int WEATHER_ORDINAL_SHIFT = 10;
+
+    private static final WeatherType[] WEATHER_TYPES = WeatherType.values();
+    private static final String[] WEATHER_LABELS = new String[WEATHER_TYPES.length];
+
+    static {
+        for (WeatherType weatherType : WEATHER_TYPES) {
+            WEATHER_LABELS[weatherType.ordinal()] = weatherType.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final int maxSpeedKmh;
+    private final int baseSpeedKmh;
+    private final int flags;
+    private final int weatherPenalty;
+    private final int minAllowedSpeed;
+    private final int maxAllowedSpeed;
+    private final CompiledRuleSet ruleSet;
+    private final long matchedRules;
+    // Set only by the public constructor; final so it is visible even if the decision is
+    // published through a data race.
+    private final String explicitReason;
+
+    // Rendered on first access from the compact fields above; String is immutable, so a racy
+    // double render is harmless.
+    private String renderedReason;
+
+    public SpeedDecision(int maxSpeedKmh, String reason) {
+        this(maxSpeedKmh, 0, 0, 0, null, 0L, SpeedRuleEngine.UNSET, SpeedRuleEngine.UNSET, reason);
+    }
+
+    /**
+     * Compact form used by the rule engine: which adjustments were applied, plus the values
+     * needed to describe them. The reason string is only built when asked for.
+     */
+    SpeedDecision(int maxSpeedKmh, int baseSpeedKmh, int flags, int weatherPenalty,
+                  int minAllowedSpeed, int maxAllowedSpeed) {
+        this(maxSpeedKmh, baseSpeedKmh, flags, weatherPenalty, null, 0L, minAllowedSpeed, maxAllowedSpeed, null);
+    }
+
+    /**
+     * Decision from a rule set: the penalties are described by the labels of the matched rules
+     * instead of the GRAVEL/NIGHT/WEATHER flags.
+     */
+    SpeedDecision(int maxSpeedKmh, int baseSpeedKmh, int flags, CompiledRuleSet ruleSet, long matchedRules,
+                  int minAllowedSpeed, int maxAllowedSpeed) {
+        this(maxSpeedKmh, baseSpeedKmh, flags, 0, ruleSet, matchedRules, minAllowedSpeed, maxAllowedSpeed, null);
+    }
+
+    private SpeedDecision(int maxSpeedKmh, int baseSpeedKmh, int flags, int weatherPenalty,
+                          CompiledRuleSet ruleSet, long matchedRules, int minAllowedSpeed, int maxAllowedSpeed,
+                          String explicitReason) {
+        this.maxSpeedKmh = maxSpeedKmh;
+        this.baseSpeedKmh = baseSpeedKmh;
+        this.flags = flags;
+        this.weatherPenalty = weatherPenalty;
+        this.ruleSet = ruleSet;
+        this.matchedRules = matchedRules;
+        this.minAllowedSpeed = minAllowedSpeed;
+        this.maxAllowedSpeed = maxAllowedSpeed;
+        this.explicitReason = explicitReason;
+    }
+
+    static int weatherFlags(WeatherType weatherType) {
+        return WEATHER | (weatherType.ordinal() << WEATHER_ORDINAL_SHIFT);
+    }
+
+    public int getMaxSpeedKmh() {
+        return maxSpeedKmh;
+    }
+
+    /**
+     * @return the rule set that produced the decision, or null if it came from SpeedRuleEngine
+     */
+    public CompiledRuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    public String getReason() {
+        if (explicitReason != null) {
+            return explicitReason;
+        }
+        String rendered = renderedReason;
+        if (rendered == null) {
+            rendered = renderReason();
+            renderedReason = rendered;
+        }
+        return rendered;
+    }
+
+    private String renderReason() {
+        StringBuilder builder = new StringBuilder(64);
+        builder.append("base ").append(baseSpeedKmh);
+
+        if (ruleSet != null) {
+            ruleSet.appendPenalties(builder, baseSpeedKmh, matchedRules);
+        }
+        if ((flags & GRAVEL) != 0) {
+            builder.append(", -").append(SpeedRuleEngine.GRAVEL_PENALTY).append(" gravel");
+        }
+        if ((flags & NIGHT) != 0) {
+            builder.append(", -").append(SpeedRuleEngine.NIGHT_PENALTY).append(" night");
+        }
+        if ((flags & WEATHER) != 0) {
+            builder.append(", -").append(weatherPenalty);
+            if ((flags & GRADED) == 0) {
+                builder.append(' ').append(WEATHER_LABELS[flags >>> WEATHER_ORDINAL_SHIFT]);
+            } else if ((flags & GRADED) == GRADED) {
+                builder.append(" graded precipitation and temperature");
+            } else {
+                builder.append((flags & GRADED_PRECIPITATION) != 0 ? " graded precipitation" : " graded temperature");
+            }
+        }
+
+        if ((flags & CLAMPED_TO_GLOBAL_MIN) != 0) {
+            builder.append(", → clamp ")
+                    .append(ruleSet != null ? ruleSet.getClampMin() : SpeedRuleEngine.GLOBAL_MIN_SPEED);
+        } else if ((flags & CLAMPED_TO_GLOBAL_MAX) != 0) {
+            builder.append(", → clamp ")
+                    .append(ruleSet != null ? ruleSet.getClampMax() : SpeedRuleEngine.GLOBAL_MAX_SPEED);
+        }
+
+        if ((flags & ADMIN_BOUNDS_APPLIED) != 0) {
+            builder.append(" → admin bounds [");
+            if ((flags & HAS_MIN_BOUND) != 0) {
+                builder.append("min=").append(minAllowedSpeed);
+            }
+            if ((flags & HAS_MIN_BOUND) != 0 && (flags & HAS_MAX_BOUND) != 0) {
+                builder.append(", ");
+            }
+            if ((flags & HAS_MAX_BOUND) != 0) {
+                builder.append("max=").append(maxAllowedSpeed);
+            }
+            builder.append("] → final ").append(maxSpeedKmh);
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "SpeedDecision{" +
+                "maxSpeedKmh=" + maxSpeedKmh +
+                ", reason='" + getReason() + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,312 @@
+package com.fleet.safety.domain;
+
+import com.fleet.safety.metrics.Metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Re-evaluates the speed limit continuously from a stream of location, road, time-of-day and
+ * weather updates.
+ *
+ * Each update only changes the input state; the evaluator runs again only when an input that
+ * affects the result changed (grid cell, road type, day/night, weather or admin bounds).
+ * With a {@link SpeedRuleEngine} only the weather class matters and decisions come from its
+ * compiled table; any other {@link SpeedEvaluator}, such as a {@link RuleSetSpeedEngine}, may
+ * depend on temperature and precipitation too, so every new reading is evaluated.
+ * Evaluations are throttled to one per minIntervalMillis of input time; a change that arrives
+ * inside the interval is evaluated with the next update after it, or on {@link #flush(long)}.
+ * Subscribers are notified only when the resulting decision differs from the last one pushed,
+ * and receive the settings and weather it was evaluated from.
+ *
+ * Updates are processed under a lock. Subscribers are called after it is released, on the
+ * thread that delivered the update, so a slow listener does not hold up other updates and a
+ * listener may call back into the pipeline. A decision already superseded by a newer one by
+ * the time it is delivered is dropped.
+ */
+public class SpeedEvaluationPipeline {
+
+    public interface Listener {
+        /**
+         * @param settings the road, time of day and admin values the decision was evaluated with
+         * @param weather  the weather snapshot it was evaluated with
+         */
+        void onDecision(SpeedDecision decision, DriverSettings settings, WeatherSnapshot weather);
+    }
+
+    public interface CellChangeListener {
+        /**
+         * Called when the vehicle enters a new grid cell, typically to fetch weather for it.
+         */
+        void onCellChanged(long cellKey, double latitude, double longitude);
+    }
+
+    private static final long NO_CELL = Long.MIN_VALUE;
+
+    private final SpeedEvaluator evaluator;
+    // Set when the evaluator is the built-in engine, whose compiled table only needs the weather class.
+    private final SpeedRuleEngine bucketEngine;
+    private final long minIntervalMillis;
+    private final double cellDegrees;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile CellChangeListener cellChangeListener;
+    private SolarCalculator solarCalculator;
+
+    private long cellKey = NO_CELL;
+    private double latitude = Double.NaN;
+    private double longitude;
+    private RoadType roadType = RoadType.ASPHALT;
+    private TimeOfDay timeOfDay = TimeOfDay.DAY;
+    private WeatherSnapshot weather;
+    private Integer baseSpeed;
+    private Integer minAllowedSpeed;
+    private Integer maxAllowedSpeed;
+
+    private boolean dirty;
+    private long lastEvaluationMillis = Long.MIN_VALUE;
+    private volatile SpeedDecision lastDecision;
+
+    public SpeedEvaluationPipeline(SpeedEvaluator evaluator, long minIntervalMillis) {
+        this(evaluator, minIntervalMillis, GridCell.DEFAULT_CELL_DEGREES);
+    }
+
+    public SpeedEvaluationPipeline(SpeedEvaluator evaluator, long minIntervalMillis, double cellDegrees) {
+        if (evaluator == null) {
+            throw new IllegalArgumentException("Speed evaluator cannot be null");
+        }
+        if (minIntervalMillis < 0 || cellDegrees <= 0) {
+            throw new IllegalArgumentException("Interval cannot be negative and cell size must be positive");
+        }
+        this.evaluator = evaluator;
+        this.bucketEngine = evaluator instanceof SpeedRuleEngine ? (SpeedRuleEngine) evaluator : null;
+        this.minIntervalMillis = minIntervalMillis;
+        this.cellDegrees = cellDegrees;
+    }
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void setCellChangeListener(CellChangeListener cellChangeListener) {
+        this.cellChangeListener = cellChangeListener;
+    }
+
+    /**
+     * Derives day/night from the last location and the input time instead of
+     * {@link #onTimeOfDay}. Pass null to go back to manual updates.
+     */
+    public void setSolarCalculator(SolarCalculator solarCalculator, long epochMillis) {
+        Evaluation evaluation;
+        synchronized (this) {
+            this.solarCalculator = solarCalculator;
+            evaluation = evaluateIfDue(epochMillis);
+        }
+        publish(evaluation);
+    }
+
+    public void onLocation(double latitude, double longitude, long epochMillis) {
+        long newCellKey = GridCell.keyOf(latitude, longitude, cellDegrees);
+        boolean cellChanged;
+        Evaluation evaluation;
+        synchronized (this) {
+            cellChanged = newCellKey != cellKey;
+            if (cellChanged) {
+                cellKey = newCellKey;
+                dirty = true;
+            }
+            this.latitude = latitude;
+            this.longitude = longitude;
+            evaluation = evaluateIfDue(epochMillis);
+        }
+        publish(evaluation);
+
+        CellChangeListener listener = cellChangeListener;
+        if (cellChanged && listener != null) {
+            listener.onCellChanged(newCellKey, latitude, longitude);
+        }
+    }
+
+    public void onRoadType(RoadType roadType, long epochMillis) {
+        Evaluation evaluation;
+        synchronized (this) {
+            if (roadType != null && roadType != this.roadType) {
+                this.roadType = roadType;
+                dirty = true;
+            }
+            evaluation = evaluateIfDue(epochMillis);
+        }
+        publish(evaluation);
+    }
+
+    /**
+     * Ignored while a solar calculator is set.
+     */
+    public void onTimeOfDay(TimeOfDay timeOfDay, long epochMillis) {
+        Evaluation evaluation;
+        synchronized (this) {
+            if (solarCalculator == null) {
+                updateTimeOfDay(timeOfDay);
+            }
+            evaluation = evaluateIfDue(epochMillis);
+        }
+        publish(evaluation);
+    }
+
+    private void updateTimeOfDay(TimeOfDay timeOfDay) {
+        if (timeOfDay != null && timeOfDay != this.timeOfDay) {
+            this.timeOfDay = timeOfDay;
+            dirty = true;
+        }
+    }
+
+    /**
+     * With the built-in engine only the weather class matters, so new snapshots with the same
+     * WeatherType do not trigger an evaluation.
+     */
+    public void onWeather(WeatherSnapshot weather, long epochMillis) {
+        Evaluation evaluation;
+        synchronized (this) {
+            if (weather != null && weatherChanged(weather)) {
+                this.weather = weather;
+                dirty = true;
+            }
+            evaluation = evaluateIfDue(epochMillis);
+        }
+        publish(evaluation);
+    }
+
+    public void setAdminBounds(Integer baseSpeed, Integer minAllowedSpeed, Integer maxAllowedSpeed,
+                               long epochMillis) {
+        Evaluation evaluation;
+        synchronized (this) {
+            if (!equal(baseSpeed, this.baseSpeed) || !equal(minAllowedSpeed, this.minAllowedSpeed)
+                    || !equal(maxAllowedSpeed, this.maxAllowedSpeed)) {
+                this.baseSpeed = baseSpeed;
+                this.minAllowedSpeed = minAllowedSpeed;
+                this.maxAllowedSpeed = maxAllowedSpeed;
+                dirty = true;
+            }
+            evaluation = evaluateIfDue(epochMillis);
+        }
+        publish(evaluation);
+    }
+
+    /**
+     * Evaluates a change held back by the throttle, if any, once the interval has passed.
+     * Hosts can call this from a timer so the last change is not delayed until the next update.
+     */
+    public void flush(long epochMillis) {
+        Evaluation evaluation;
+        synchronized (this) {
+            evaluation = evaluateIfDue(epochMillis);
+        }
+        publish(evaluation);
+    }
+
+    private boolean weatherChanged(WeatherSnapshot weather) {
+        WeatherSnapshot current = this.weather;
+        if (current == null || weather.getWeatherType() != current.getWeatherType()) {
+            return true;
+        }
+        return bucketEngine == null
+                && (weather.getTemperatureCelsius() != current.getTemperatureCelsius()
+                || weather.getPrecipitationMm() != current.getPrecipitationMm());
+    }
+
+    /**
+     * @return the newest decision, or null if none yet
+     */
+    public SpeedDecision getLastDecision() {
+        return lastDecision;
+    }
+
+    /**
+     * Runs the engine if an input changed and the throttle allows it. Called with the lock held.
+     *
+     * @return the new decision to publish with its inputs, or null if there is nothing new
+     */
+    private Evaluation evaluateIfDue(long epochMillis) {
+        if (solarCalculator != null && !Double.isNaN(latitude)) {
+            updateTimeOfDay(solarCalculator.timeOfDay(latitude, longitude, epochMillis));
+        }
+        if (!dirty || weather == null) {
+            return null;
+        }
+        if (lastEvaluationMillis != Long.MIN_VALUE && epochMillis - lastEvaluationMillis < minIntervalMillis) {
+            return null;
+        }
+
+        dirty = false;
+        lastEvaluationMillis = epochMillis;
+
+        DriverSettings settings = DriverSettings.builder()
+                .withRoadType(roadType)
+                .withTimeOfDay(timeOfDay)
+                .withBaseSpeed(baseSpeed)
+                .withMinAllowedSpeed(minAllowedSpeed)
+                .withMaxAllowedSpeed(maxAllowedSpeed)
+                .build();
+        SpeedDecision decision;
+        if (bucketEngine != null) {
+            long start = Metrics.startTimer();
+            decision = bucketEngine.compiledTableFor(baseSpeed, minAllowedSpeed, maxAllowedSpeed)
+                    .lookup(roadType, timeOfDay, weather.getWeatherType());
+            SpeedRuleEngine.recordEvaluation(start);
+        } else {
+            decision = evaluator.computeMaxSpeed(settings, weather);
+        }
+        if (isSameDecision(decision, lastDecision)) {
+            return null;
+        }
+        lastDecision = decision;
+        return new Evaluation(decision, settings, weather);
+    }
+
+    /**
+     * Compiled-table decisions are shared instances; other evaluators build a new decision on
+     * every call, so those are compared by value.
+     */
+    private static boolean isSameDecision(SpeedDecision decision, SpeedDecision last) {
+        return decision == last || (last != null && decision.getMaxSpeedKmh() == last.getMaxSpeedKmh()
+                && decision.getReason().equals(last.getReason()));
+    }
+
+    /**
+     * Notifies subscribers without holding the lock. Skips the decision if another update
+     * replaced it in the meantime, so an older result never overwrites a newer one.
+     */
+    private void publish(Evaluation evaluation) {
+        if (evaluation == null) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            if (evaluation.decision != lastDecision) {
+                return;
+            }
+            listener.onDecision(evaluation.decision, evaluation.settings, evaluation.weather);
+        }
+    }
+
+    private static boolean equal(Integer a, Integer b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * A decision together with the inputs it was evaluated from.
+     */
+    private static final class Evaluation {
+        final SpeedDecision decision;
+        final DriverSettings settings;
+        final WeatherSnapshot weather;
+
+        Evaluation(SpeedDecision decision, DriverSettings settings, WeatherSnapshot weather) {
+            this.decision = decision;
+            this.settings = settings;
+            this.weather = weather;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.fleet.safety.domain;
+
+/**
+ * Single-decision entry point shared by {@link SpeedRuleEngine} and {@link RuleSetSpeedEngine},
+ * so callers evaluate through whichever rules are active instead of naming an engine.
+ */
+public interface SpeedEvaluator {
+
+    /**
+     * @param weather current weather; null is treated as clear weather
+     * @throws IllegalArgumentException if settings is null or has a null road type or time of day
+     */
+    SpeedDecision computeMaxSpeed(DriverSettings settings, WeatherSnapshot weather);
+}
@@ -0,0 +1,467 @@
+package com.fleet.safety.domain;
+
+import com.fleet.safety.metrics.Counter;
+import com.fleet.safety.metrics.LatencyHistogram;
+import com.fleet.safety.metrics.Metrics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Stateless apart from the published {@link SpeedConfig} and the compiled lookup table, both
+ * swapped atomically, so one instance can be shared by any number of threads.
+ *
+ * Every single evaluation is counted in {@code engine.evaluations} and timed in
+ * {@code engine.evaluate} while {@link Metrics} is enabled.
+ */
+public class SpeedRuleEngine implements SpeedEvaluator {
+
+    /**
+     * Marker for an absent value in primitive batch columns (default base speed, or no admin bound).
+     */
+    public static final int UNSET = Integer.MIN_VALUE;
+
+    static final int DEFAULT_BASE_SPEED = 80;
+    static final int GLOBAL_MIN_SPEED = 20;
+    static final int GLOBAL_MAX_SPEED = 110;
+    static final int GRAVEL_PENALTY = 20;
+    static final int NIGHT_PENALTY = 10;
+    static final int RAIN_PENALTY = 10;
+    static final int SNOW_PENALTY = 20;
+    static final int ICE_PENALTY = 30;
+
+    private static final int BATCH_SPLIT_THRESHOLD = 8192;
+
+    static final Counter EVALUATIONS = Metrics.counter("engine.evaluations");
+    static final LatencyHistogram EVALUATE = Metrics.histogram("engine.evaluate");
+    private static final Counter BATCH_ENTRIES = Metrics.counter("engine.batch_entries");
+    private static final LatencyHistogram BATCH = Metrics.histogram("engine.batch");
+
+    private static final RoadType[] ROAD_TYPES = RoadType.values();
+    private static final TimeOfDay[] TIMES_OF_DAY = TimeOfDay.values();
+    private static final WeatherType[] WEATHER_TYPES = WeatherType.values();
+
+    private static final int[] ROAD_PENALTIES = new int[ROAD_TYPES.length];
+    private static final int[] TIME_PENALTIES = new int[TIMES_OF_DAY.length];
+    private static final int[] WEATHER_PENALTIES = new int[WEATHER_TYPES.length];
+
+    static {
+        ROAD_PENALTIES[RoadType.GRAVEL.ordinal()] = GRAVEL_PENALTY;
+        TIME_PENALTIES[TimeOfDay.NIGHT.ordinal()] = NIGHT_PENALTY;
+        WEATHER_PENALTIES[WeatherType.RAIN.ordinal()] = RAIN_PENALTY;
+        WEATHER_PENALTIES[WeatherType.SNOW.ordinal()] = SNOW_PENALTY;
+        WEATHER_PENALTIES[WeatherType.ICE.ordinal()] = ICE_PENALTY;
+    }
+
+    /**
+     * Compiled tables, one per admin bounds triple, in a direct-mapped table of immutable
+     * entries. Fleets mixing a few bounds each keep their own table instead of evicting one
+     * shared slot on every vehicle; a collision only costs a recompilation.
+     */
+    private static final int COMPILED_TABLE_SLOTS = 64;
+
+    private final AtomicReferenceArray<CompiledSpeedTable> compiledTables =
+            new AtomicReferenceArray<>(COMPILED_TABLE_SLOTS);
+    private final AtomicReference<SpeedConfig> config = new AtomicReference<>(SpeedConfig.INITIAL);
+
+    /**
+     * @return the current configuration snapshot; never null
+     */
+    public SpeedConfig getConfig() {
+        return config.get();
+    }
+
+    /**
+     * Publishes a new configuration snapshot with the next version number. Evaluations already
+     * running keep the snapshot they read; later ones see the new one.
+     *
+     * @return the published snapshot
+     * @throws IllegalArgumentException if both bounds are set and min is greater than max
+     */
+    public SpeedConfig publishConfig(Integer baseSpeed, Integer minAllowedSpeed, Integer maxAllowedSpeed) {
+        if (minAllowedSpeed != null && maxAllowedSpeed != null && minAllowedSpeed > maxAllowedSpeed) {
+            throw new IllegalArgumentException("Min allowed speed cannot be greater than max allowed speed");
+        }
+        while (true) {
+            SpeedConfig current = config.get();
+            SpeedConfig next = current.next(baseSpeed, minAllowedSpeed, maxAllowedSpeed);
+            if (config.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Evaluates with the admin values of the current {@link SpeedConfig} snapshot, served from
+     * the compiled table. Lock-free and allocation-free once the table for the snapshot exists.
+     */
+    public SpeedDecision computeMaxSpeed(RoadType roadType, TimeOfDay timeOfDay, WeatherSnapshot weather) {
+        if (roadType == null || timeOfDay == null) {
+            throw new IllegalArgumentException("Road type and time of day cannot be null");
+        }
+        long start = Metrics.startTimer();
+        SpeedConfig snapshot = config.get();
+        CompiledSpeedTable table = compiledTableFor(snapshot.getBaseSpeed(),
+                snapshot.getMinAllowedSpeed(), snapshot.getMaxAllowedSpeed());
+        SpeedDecision decision = table.lookup(roadType, timeOfDay,
+                weather != null ? weather.getWeatherType() : WeatherType.CLEAR);
+        recordEvaluation(start);
+        return decision;
+    }
+
+    /**
+     * Computes the maximum safe speed based on driver settings and current weather conditions.
+     *
+     * @param settings Driver settings including road type, time of day, and optional speed bounds.
+     *                 Must not be null and must have non-null roadType and timeOfDay.
+     * @param weather  Current weather snapshot. If null, defaults to clear weather conditions.
+     * @return SpeedDecision containing the computed maximum speed and reasoning
+     * @throws IllegalArgumentException if settings is null or has null roadType/timeOfDay
+     */
+    @Override
+    public SpeedDecision computeMaxSpeed(DriverSettings settings, WeatherSnapshot weather) {
+        long start = Metrics.startTimer();
+        SpeedDecision decision = evaluate(settings, weather);
+        recordEvaluation(start);
+        return decision;
+    }
+
+    /**
+     * Uninstrumented body of {@link #computeMaxSpeed(DriverSettings, WeatherSnapshot)}, also used
+     * to fill compiled tables so compiling does not show up as evaluations.
+     */
+    SpeedDecision evaluate(DriverSettings settings, WeatherSnapshot weather) {
+        validateSettings(settings);
+
+        if (weather == null) {
+            weather = new WeatherSnapshot(20.0, 0.0, WeatherType.CLEAR);
+        }
+
+        int baseSpeed = settings.getBaseSpeed() != null ? settings.getBaseSpeed() : DEFAULT_BASE_SPEED;
+        int currentSpeed = baseSpeed;
+        int flags = 0;
+
+        if (settings.getRoadType() == RoadType.GRAVEL) {
+            currentSpeed -= GRAVEL_PENALTY;
+            flags |= SpeedDecision.GRAVEL;
+        }
+
+        if (settings.getTimeOfDay() == TimeOfDay.NIGHT) {
+            currentSpeed -= NIGHT_PENALTY;
+            flags |= SpeedDecision.NIGHT;
+        }
+
+        WeatherType weatherType = weather.getWeatherType();
+        int weatherPenalty = WEATHER_PENALTIES[weatherType.ordinal()];
+        if (weatherType != WeatherType.CLEAR) {
+            currentSpeed -= weatherPenalty;
+            flags |= SpeedDecision.weatherFlags(weatherType);
+        }
+
+        return finishDecision(settings, baseSpeed, currentSpeed, flags, weatherPenalty);
+    }
+
+    /**
+     * Variant of {@link #computeMaxSpeed(DriverSettings, WeatherSnapshot)} whose weather penalty
+     * scales with the measured precipitation and temperature (see {@link GradedWeatherPenalty})
+     * instead of the fixed penalty of the WeatherType bucket. Road, night, clamp and admin
+     * bound rules are unchanged.
+     *
+     * @param settings Driver settings, same requirements as computeMaxSpeed
+     * @param weather  Current weather snapshot. If null, defaults to clear weather conditions.
+     * @return SpeedDecision whose reason reports the graded weather penalty and whether it came
+     * from precipitation, temperature or both
+     * @throws IllegalArgumentException if settings is null or has null roadType/timeOfDay
+     */
+    public SpeedDecision computeMaxSpeedGraded(DriverSettings settings, WeatherSnapshot weather) {
+        long start = Metrics.startTimer();
+        SpeedDecision decision = evaluateGraded(settings, weather);
+        recordEvaluation(start);
+        return decision;
+    }
+
+    private SpeedDecision evaluateGraded(DriverSettings settings, WeatherSnapshot weather) {
+        validateSettings(settings);
+
+        if (weather == null) {
+            weather = new WeatherSnapshot(20.0, 0.0, WeatherType.CLEAR);
+        }
+
+        int baseSpeed = settings.getBaseSpeed() != null ? settings.getBaseSpeed() : DEFAULT_BASE_SPEED;
+        int currentSpeed = baseSpeed
+                - ROAD_PENALTIES[settings.getRoadType().ordinal()]
+                - TIME_PENALTIES[settings.getTimeOfDay().ordinal()];
+        int flags = (settings.getRoadType() == RoadType.GRAVEL ? SpeedDecision.GRAVEL : 0)
+                | (settings.getTimeOfDay() == TimeOfDay.NIGHT ? SpeedDecision.NIGHT : 0);
+
+        int precipitationPenalty = GradedWeatherPenalty.precipitationPenalty(weather.getPrecipitationMm());
+        int coldPenalty = GradedWeatherPenalty.coldPenalty(weather);
+        int weatherPenalty = Math.min(GradedWeatherPenalty.MAX_PENALTY, precipitationPenalty + coldPenalty);
+        if (weatherPenalty > 0) {
+            currentSpeed -= weatherPenalty;
+            flags |= SpeedDecision.WEATHER
+                    | (precipitationPenalty > 0 ? SpeedDecision.GRADED_PRECIPITATION : 0)
+                    | (coldPenalty > 0 ? SpeedDecision.GRADED_TEMPERATURE : 0);
+        }
+
+        return finishDecision(settings, baseSpeed, currentSpeed, flags, weatherPenalty);
+    }
+
+    /**
+     * Applies the global clamp and the admin bounds to a speed that already has its penalties.
+     */
+    private static SpeedDecision finishDecision(DriverSettings settings, int baseSpeed, int currentSpeed,
+                                                int flags, int weatherPenalty) {
+        if (currentSpeed < GLOBAL_MIN_SPEED) {
+            currentSpeed = GLOBAL_MIN_SPEED;
+            flags |= SpeedDecision.CLAMPED_TO_GLOBAL_MIN;
+        } else if (currentSpeed > GLOBAL_MAX_SPEED) {
+            currentSpeed = GLOBAL_MAX_SPEED;
+            flags |= SpeedDecision.CLAMPED_TO_GLOBAL_MAX;
+        }
+
+        int minBound = UNSET;
+        int maxBound = UNSET;
+
+        if (settings.getMinAllowedSpeed() != null) {
+            minBound = settings.getMinAllowedSpeed();
+            flags |= SpeedDecision.HAS_MIN_BOUND;
+            if (currentSpeed < minBound) {
+                currentSpeed = minBound;
+                flags |= SpeedDecision.ADMIN_BOUNDS_APPLIED;
+            }
+        }
+
+        if (settings.getMaxAllowedSpeed() != null) {
+            maxBound = settings.getMaxAllowedSpeed();
+            flags |= SpeedDecision.HAS_MAX_BOUND;
+            if (currentSpeed > maxBound) {
+                currentSpeed = maxBound;
+                flags |= SpeedDecision.ADMIN_BOUNDS_APPLIED;
+            }
+        }
+
+        return new SpeedDecision(currentSpeed, baseSpeed, flags, weatherPenalty, minBound, maxBound);
+    }
+
+    /**
+     * Computes the maximum safe speed using the forecast for a projected position and time
+     * instead of live weather.
+     *
+     * @param settings    Driver settings, same requirements as computeMaxSpeed
+     * @param forecast    Prefetched forecasts for the route
+     * @param latitude    Projected latitude of the vehicle
+     * @param longitude   Projected longitude of the vehicle
+     * @param epochMillis Projected time
+     * @return SpeedDecision for the forecast conditions, or null if the index has no forecast
+     *         for that cell and hour. A miss is not clear weather; callers decide whether to
+     *         refetch or fall back to {@link WeatherSnapshot#WORST_CASE}.
+     */
+    public SpeedDecision computeMaxSpeedAt(DriverSettings settings, ForecastIndex forecast,
+                                           double latitude, double longitude, long epochMillis) {
+        if (forecast == null) {
+            throw new IllegalArgumentException("Forecast index cannot be null");
+        }
+        validateSettings(settings);
+        WeatherSnapshot weather = forecast.find(latitude, longitude, epochMillis);
+        return weather != null ? computeMaxSpeed(settings, weather) : null;
+    }
+
+    /**
+     * Same result as {@link #computeMaxSpeed(DriverSettings, WeatherSnapshot)}, served from a
+     * precomputed table. One table is kept per admin values triple (base, min, max), so once a
+     * triple has been seen the lookup allocates nothing, even when vehicles use different bounds.
+     *
+     * @param settings Driver settings, same requirements as computeMaxSpeed
+     * @param weather  Current weather snapshot. If null, defaults to clear weather conditions.
+     * @return shared SpeedDecision for the given combination
+     * @throws IllegalArgumentException if settings is null or has null roadType/timeOfDay
+     */
+    public SpeedDecision computeMaxSpeedCompiled(DriverSettings settings, WeatherSnapshot weather) {
+        validateSettings(settings);
+
+        long start = Metrics.startTimer();
+        CompiledSpeedTable table = compiledTableFor(settings.getBaseSpeed(),
+                settings.getMinAllowedSpeed(), settings.getMaxAllowedSpeed());
+        WeatherType weatherType = weather != null ? weather.getWeatherType() : WeatherType.CLEAR;
+
+        SpeedDecision decision = table.lookup(settings.getRoadType(), settings.getTimeOfDay(), weatherType);
+        recordEvaluation(start);
+        return decision;
+    }
+
+    static void recordEvaluation(long startNanos) {
+        EVALUATIONS.increment();
+        EVALUATE.recordSince(startNanos);
+    }
+
+    /**
+     * Returns the compiled table for the given admin values, compiling one if its cache slot
+     * is empty or holds a table built for different values.
+     */
+    public CompiledSpeedTable compiledTableFor(Integer baseSpeed, Integer minAllowedSpeed, Integer maxAllowedSpeed) {
+        int slot = slotOf(orUnset(baseSpeed), orUnset(minAllowedSpeed), orUnset(maxAllowedSpeed));
+        CompiledSpeedTable table = compiledTables.get(slot);
+        if (table == null || !table.matches(baseSpeed, minAllowedSpeed, maxAllowedSpeed)) {
+            table = CompiledSpeedTable.compile(this, baseSpeed, minAllowedSpeed, maxAllowedSpeed);
+            compiledTables.set(slot, table);
+        }
+        return table;
+    }
+
+    private static int slotOf(int baseSpeed, int minAllowedSpeed, int maxAllowedSpeed) {
+        int hash = ((baseSpeed * 31) + minAllowedSpeed) * 31 + maxAllowedSpeed;
+        hash *= 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (COMPILED_TABLE_SLOTS - 1);
+    }
+
+    /**
+     * Bulk variant of {@link #computeMaxSpeed(DriverSettings, WeatherSnapshot)} over parallel
+     * primitive columns. Writes one speed per entry into {@code out} without allocating per entry;
+     * batches larger than {@value #BATCH_SPLIT_THRESHOLD} entries are split across the common
+     * fork/join pool.
+     *
+     * @param batch Column input, see {@link SpeedBatch}
+     * @param out   Output array, at least {@code batch.size()} long
+     * @throws IllegalArgumentException if out is too short or an entry has an invalid ordinal
+     */
+    public void computeMaxSpeedBatch(SpeedBatch batch, int[] out) {
+        if (batch == null || out == null) {
+            throw new IllegalArgumentException("Batch and output array cannot be null");
+        }
+        if (out.length < batch.size()) {
+            throw new IllegalArgumentException("Output array is shorter than the batch");
+        }
+
+        long start = Metrics.startTimer();
+        if (batch.size() <= BATCH_SPLIT_THRESHOLD) {
+            computeRange(batch, out, 0, batch.size());
+        } else {
+            ForkJoinPool.commonPool().invoke(new BatchTask(batch, out, 0, batch.size()));
+        }
+        BATCH_ENTRIES.add(batch.size());
+        BATCH.recordSince(start);
+    }
+
+    /**
+     * Convenience overload of {@link #computeMaxSpeedBatch(SpeedBatch, int[])} taking the raw columns.
+     */
+    public void computeMaxSpeedBatch(int[] roadOrdinals, int[] timeOrdinals, int[] weatherOrdinals,
+                                     int[] baseSpeeds, int[] minSpeeds, int[] maxSpeeds, int[] out) {
+        computeMaxSpeedBatch(new SpeedBatch(roadOrdinals, timeOrdinals, weatherOrdinals,
+                baseSpeeds, minSpeeds, maxSpeeds), out);
+    }
+
+    /**
+     * Builds the human-readable reason for one batch entry on demand. Reasons are not produced
+     * by {@link #computeMaxSpeedBatch(SpeedBatch, int[])}; they are rendered here the first time
+     * an entry is asked for and cached in the batch.
+     */
+    public String describeBatchEntry(SpeedBatch batch, int index) {
+        String reason = batch.cachedReason(index);
+        if (reason == null) {
+            checkOrdinals(batch, index);
+            DriverSettings settings = DriverSettings.builder()
+                    .withRoadType(ROAD_TYPES[batch.roadOrdinal(index)])
+                    .withTimeOfDay(TIMES_OF_DAY[batch.timeOrdinal(index)])
+                    .withBaseSpeed(boxed(batch.baseSpeed(index)))
+                    .withMinAllowedSpeed(boxed(batch.minSpeed(index)))
+                    .withMaxAllowedSpeed(boxed(batch.maxSpeed(index)))
+                    .build();
+            WeatherSnapshot weather = new WeatherSnapshot(20.0, 0.0, WEATHER_TYPES[batch.weatherOrdinal(index)]);
+
+            reason = computeMaxSpeed(settings, weather).getReason();
+            batch.cacheReason(index, reason);
+        }
+        return reason;
+    }
+
+    private static void computeRange(SpeedBatch batch, int[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            checkOrdinals(batch, i);
+            out[i] = computeSpeedKmh(batch.roadOrdinal(i), batch.timeOrdinal(i), batch.weatherOrdinal(i),
+                    batch.baseSpeed(i), batch.minSpeed(i), batch.maxSpeed(i));
+        }
+    }
+
+    /**
+     * Primitive form of the rule chain used by computeMaxSpeed: penalties, global clamp, then admin bounds.
+     */
+    static int computeSpeedKmh(int roadOrdinal, int timeOrdinal, int weatherOrdinal,
+                               int baseSpeed, int minAllowedSpeed, int maxAllowedSpeed) {
+        int speed = baseSpeed != UNSET ? baseSpeed : DEFAULT_BASE_SPEED;
+        speed -= ROAD_PENALTIES[roadOrdinal] + TIME_PENALTIES[timeOrdinal] + WEATHER_PENALTIES[weatherOrdinal];
+
+        if (speed < GLOBAL_MIN_SPEED) {
+            speed = GLOBAL_MIN_SPEED;
+        } else if (speed > GLOBAL_MAX_SPEED) {
+            speed = GLOBAL_MAX_SPEED;
+        }
+
+        if (minAllowedSpeed != UNSET && speed < minAllowedSpeed) {
+            speed = minAllowedSpeed;
+        }
+        if (maxAllowedSpeed != UNSET && speed > maxAllowedSpeed) {
+            speed = maxAllowedSpeed;
+        }
+        return speed;
+    }
+
+    private static void checkOrdinals(SpeedBatch batch, int index) {
+        if (batch.roadOrdinal(index) < 0 || batch.roadOrdinal(index) >= ROAD_TYPES.length
+                || batch.timeOrdinal(index) < 0 || batch.timeOrdinal(index) >= TIMES_OF_DAY.length
+                || batch.weatherOrdinal(index) < 0 || batch.weatherOrdinal(index) >= WEATHER_TYPES.length) {
+            throw new IllegalArgumentException("Invalid enum ordinal in batch entry " + index);
+        }
+    }
+
+    private static Integer boxed(int value) {
+        return value != UNSET ? value : null;
+    }
+
+    private static int orUnset(Integer value) {
+        return value != null ? value : UNSET;
+    }
+
+    private static final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SpeedBatch batch;
+        private final int[] out;
+        private final int from;
+        private final int to;
+
+        BatchTask(SpeedBatch batch, int[] out, int from, int to) {
+            this.batch = batch;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SPLIT_THRESHOLD) {
+                computeRange(batch, out, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(batch, out, from, mid), new BatchTask(batch, out, mid, to));
+        }
+    }
+
+    private void validateSettings(DriverSettings settings) {
+        if (settings == null) {
+            throw new IllegalArgumentException("Driver settings cannot be null");
+        }
+
+        if (settings.getRoadType() == null) {
+            throw new IllegalArgumentException("Road type cannot be null in driver settings");
+        }
+
+        if (settings.getTimeOfDay() == null) {
+            throw new IllegalArgumentException("Time of day cannot be null in driver settings");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.fleet.safety.domain;
+public class WeatherSnapshot {
+
+    /**
+     * Stand-in for weather that is not known: freezing with heavy precipitation, so the bucket,
+     * graded and rule-set engines all apply their largest weather penalty instead of treating
+     * missing data as clear weather. Compare by identity to tell it apart from real data.
+     */
+    public static final WeatherSnapshot WORST_CASE = new WeatherSnapshot(-15.0, 25.0, WeatherType.ICE);
+
+    private final double temperatureCelsius;
+    private final double precipitationMm;
+    private final WeatherType weatherType;
+    private final long fetchedAtMillis;
+
+    public WeatherSnapshot(double temperatureCelsius, double precipitationMm, WeatherType weatherType) {
+        this(temperatureCelsius, precipitationMm, weatherType, 0L);
+    }
+
+    /**
+     * @param fetchedAtMillis when a snapshot read back from storage was originally fetched;
+     *                        0 for one that was just fetched
+     */
+    public WeatherSnapshot(double temperatureCelsius, double precipitationMm, WeatherType weatherType,
+                           long fetchedAtMillis) {
+        this.temperatureCelsius = temperatureCelsius;
+        this.precipitationMm = precipitationMm;
+        this.weatherType = weatherType;
+        this.fetchedAtMillis = fetchedAtMillis;
+    }
+
+    public double getTemperatureCelsius() {
+        return temperatureCelsius;
+    }
+
+    public double getPrecipitationMm() {
+        return precipitationMm;
+    }
+
+    public WeatherType getWeatherType() {
+        return weatherType;
+    }
+
+    /**
+     * @return when the snapshot was originally fetched if it was replayed from storage, or 0 if
+     * it is fresh from the network
+     */
+    public long getFetchedAtMillis() {
+        return fetchedAtMillis;
+    }
+}
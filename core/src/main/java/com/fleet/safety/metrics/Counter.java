@@ -0,0 +1,40 @@
+package com.fleet.safety.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free event counter; updates are dropped while {@link Metrics} is disabled.
+ */
+public final class Counter {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment() {
+        if (Metrics.isEnabled()) {
+            count.increment();
+        }
+    }
+
+    public void add(long amount) {
+        if (Metrics.isEnabled()) {
+            count.add(amount);
+        }
+    }
+
+    public long sum() {
+        return count.sum();
+    }
+
+    void reset() {
+        count.reset();
+    }
+}
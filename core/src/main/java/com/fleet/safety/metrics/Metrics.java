@@ -0,0 +1,80 @@
+package com.fleet.safety.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide registry of counters and latency histograms.
+ *
+ * Instruments are created once, usually into static final fields of the instrumented class,
+ * and are updated without locks. Collection is off by default: while disabled, every update
+ * is a single volatile read and no clock is read.
+ *
+ * <pre>
+ * private static final LatencyHistogram PARSE = Metrics.histogram("weather.parse");
+ *
+ * long start = Metrics.startTimer();
+ * ...
+ * PARSE.recordSince(start);
+ * </pre>
+ */
+public final class Metrics {
+
+    private static volatile boolean enabled;
+
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * @return the current System.nanoTime(), or 0 when collection is disabled, in which case
+     * {@link LatencyHistogram#recordSince(long)} ignores it
+     */
+    public static long startTimer() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Copies the current value of every instrument, sorted by name.
+     */
+    public static MetricsSnapshot snapshot() {
+        Map<String, Long> counters = new TreeMap<>();
+        for (Counter counter : COUNTERS.values()) {
+            counters.put(counter.getName(), counter.sum());
+        }
+        Map<String, LatencyHistogram.Snapshot> histograms = new TreeMap<>();
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histograms.put(histogram.getName(), histogram.snapshot());
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), enabled, counters, histograms);
+    }
+
+    public static void reset() {
+        for (Counter counter : COUNTERS.values()) {
+            counter.reset();
+        }
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.fleet.safety.metrics;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable copy of every instrument at one point in time, with a plain-text dump format:
+ *
+ * <pre>
+ * # metrics at 1718971200000 enabled=true
+ * counter weather.cache.hit 42
+ * histogram weather.ttfb count=12 mean_us=85.3 p50_us=80.0 p90_us=120.0 p99_us=310.0 max_us=312.4
+ * </pre>
+ */
+public final class MetricsSnapshot {
+
+    private final long takenAtMillis;
+    private final boolean enabled;
+    private final Map<String, Long> counters;
+    private final Map<String, LatencyHistogram.Snapshot> histograms;
+
+    MetricsSnapshot(long takenAtMillis, boolean enabled, Map<String, Long> counters,
+                    Map<String, LatencyHistogram.Snapshot> histograms) {
+        this.takenAtMillis = takenAtMillis;
+        this.enabled = enabled;
+        this.counters = Collections.unmodifiableMap(counters);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    public long getTakenAtMillis() {
+        return takenAtMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return counter values by name, in name order
+     */
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    /**
+     * @return histograms by name, in name order
+     */
+    public Map<String, LatencyHistogram.Snapshot> getHistograms() {
+        return histograms;
+    }
+
+    public long counter(String name) {
+        Long value = counters.get(name);
+        return value != null ? value : 0L;
+    }
+
+    public void writeTo(Appendable out) throws IOException {
+        out.append("# metrics at ").append(String.valueOf(takenAtMillis))
+                .append(" enabled=").append(String.valueOf(enabled)).append('\n');
+        for (Map.Entry<String, Long> counter : counters.entrySet()) {
+            out.append("counter ").append(counter.getKey()).append(' ')
+                    .append(String.valueOf(counter.getValue())).append('\n');
+        }
+        for (LatencyHistogram.Snapshot histogram : histograms.values()) {
+            out.append(String.format(Locale.US,
+                    "histogram %s count=%d mean_us=%.1f p50_us=%.1f p90_us=%.1f p99_us=%.1f max_us=%.1f\n",
+                    histogram.getName(), histogram.getCount(), histogram.getMeanNanos() / 1000.0,
+                    histogram.percentileNanos(50) / 1000.0, histogram.percentileNanos(90) / 1000.0,
+                    histogram.percentileNanos(99) / 1000.0, histogram.getMaxNanos() / 1000.0));
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(256);
+        try {
+            writeTo(builder);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringBuilder cannot fail", e);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,200 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.domain.WeatherSnapshot;
+import com.fleet.safety.domain.WeatherType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OpenMeteoResponseParserTest {
+
+    private static final double DELTA = 1e-9;
+
+    private StubHttpServer server;
+    private final OpenMeteoResponseParser parser = new OpenMeteoResponseParser();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void readsCurrentFieldsInAnyOrder() throws IOException {
+        List<WeatherSnapshot> snapshots = parseCurrent("{\"current\":{\"weather_code\":61,\"time\":1700000000,"
+                + "\"precipitation\":1.5,\"interval\":900,\"temperature_2m\":8.25},\"latitude\":-45.86}");
+
+        assertEquals(1, snapshots.size());
+        assertEquals(8.25, snapshots.get(0).getTemperatureCelsius(), DELTA);
+        assertEquals(1.5, snapshots.get(0).getPrecipitationMm(), DELTA);
+        assertEquals(WeatherType.RAIN, snapshots.get(0).getWeatherType());
+    }
+
+    @Test
+    public void skipsNestedObjectsAndArrays() throws IOException {
+        List<WeatherSnapshot> snapshots = parseCurrent("{\"current_units\":{\"temperature_2m\":\"°C\","
+                + "\"nested\":{\"deeper\":[1,[2,{\"current\":{}}],{\"x\":[]}]}},"
+                + "\"hourly\":{\"time\":[1,2,3],\"temperature_2m\":[null,1.0,2.0]},"
+                + "\"elevation\":35.0,\"flags\":[true,false,null,-1.5e3],"
+                + "\"current\":{\"temperature_2m\":-2.0,\"precipitation\":0.0,\"weather_code\":0}}");
+
+        assertEquals(WeatherType.ICE, snapshots.get(0).getWeatherType());
+        assertEquals(-2.0, snapshots.get(0).getTemperatureCelsius(), DELTA);
+    }
+
+    @Test
+    public void handlesEscapedStrings() throws IOException {
+        // Brackets, quotes and backslashes inside skipped strings must not end the value early,
+        // and escaped member names must still match.
+        List<WeatherSnapshot> snapshots = parseCurrent("{\"timezone\":\"a \\\"quoted\\\" } ] \\\\\","
+                + "\"note\":\"\\u007b\\n\\t{[\","
+                + "\"current\":{\"temperature\\u005f2m\":3.0,\"weather\\u005Fcode\":73,\"precipitation\":0.4}}");
+
+        assertEquals(3.0, snapshots.get(0).getTemperatureCelsius(), DELTA);
+        assertEquals(WeatherType.SNOW, snapshots.get(0).getWeatherType());
+    }
+
+    @Test
+    public void treatsNullPrecipitationAsDry() throws IOException {
+        List<WeatherSnapshot> snapshots = parseCurrent(
+                "{\"current\":{\"temperature_2m\":12.0,\"precipitation\":null,\"weather_code\":3}}");
+
+        assertEquals(0.0, snapshots.get(0).getPrecipitationMm(), DELTA);
+        assertEquals(WeatherType.CLEAR, snapshots.get(0).getWeatherType());
+    }
+
+    @Test
+    public void rejectsNullTemperatureOrWeatherCode() {
+        assertParseFails("{\"current\":{\"temperature_2m\":null,\"weather_code\":3}}");
+        assertParseFails("{\"current\":{\"temperature_2m\":5.0,\"weather_code\":null}}");
+    }
+
+    @Test
+    public void readsEveryLocationOfAMultiLocationResponse() throws IOException {
+        List<WeatherSnapshot> snapshots = parseCurrent("[{\"current\":{\"temperature_2m\":10,\"weather_code\":0}},"
+                + " {\"current\":{\"temperature_2m\":4,\"precipitation\":2,\"weather_code\":63}} ,"
+                + "{\"location_id\":2,\"current\":{\"temperature_2m\":-1,\"weather_code\":71}}]");
+
+        assertEquals(3, snapshots.size());
+        assertEquals(WeatherType.CLEAR, snapshots.get(0).getWeatherType());
+        assertEquals(WeatherType.RAIN, snapshots.get(1).getWeatherType());
+        assertEquals(WeatherType.ICE, snapshots.get(2).getWeatherType());
+    }
+
+    @Test
+    public void readsHourlyNullsAsMissingHours() throws IOException {
+        List<OpenMeteoResponseParser.HourlyForecast> forecasts = parseHourly("{\"hourly\":{"
+                + "\"time\":[3600,7200,10800],\"temperature_2m\":[5.0,null,7.0],"
+                + "\"precipitation\":[null,0.0,1.2],\"weather_code\":[0,1,null]}}");
+
+        OpenMeteoResponseParser.HourlyForecast forecast = forecasts.get(0);
+        assertEquals(3, forecast.timesSeconds.length);
+        assertEquals(7200L, forecast.timesSeconds[1]);
+        assertEquals(WeatherType.CLEAR, forecast.snapshots[0].getWeatherType());
+        assertEquals(0.0, forecast.snapshots[0].getPrecipitationMm(), DELTA);
+        assertNull(forecast.snapshots[1]);
+        assertNull(forecast.snapshots[2]);
+    }
+
+    @Test
+    public void readsLargeHourlyPayloads() throws IOException {
+        // Several locations with far more hours than the initial arrays and the read buffer hold.
+        int locations = 4;
+        int hours = 24 * 400;
+        StringBuilder json = new StringBuilder(locations * hours * 40).append('[');
+        for (int l = 0; l < locations; l++) {
+            if (l > 0) {
+                json.append(',');
+            }
+            json.append("{\"latitude\":").append(-45 - l).append(",\"hourly_units\":{\"time\":\"unixtime\"},\"hourly\":{");
+            appendArray(json, "time", hours, h -> String.valueOf(1_700_000_000L + h * 3600L));
+            json.append(',');
+            appendArray(json, "temperature_2m", hours, h -> h % 2 == 0 ? "-3.5" : "11.25");
+            json.append(',');
+            appendArray(json, "precipitation", hours, h -> h % 3 == 0 ? "0.8" : "0.0");
+            json.append(',');
+            appendArray(json, "weather_code", hours, h -> "61");
+            json.append("}}");
+        }
+        json.append(']');
+
+        List<OpenMeteoResponseParser.HourlyForecast> forecasts = parseHourly(json.toString());
+
+        assertEquals(locations, forecasts.size());
+        for (OpenMeteoResponseParser.HourlyForecast forecast : forecasts) {
+            assertEquals(hours, forecast.timesSeconds.length);
+            assertEquals(1_700_000_000L + (hours - 1) * 3600L, forecast.timesSeconds[hours - 1]);
+            assertEquals(WeatherType.ICE, forecast.snapshots[0].getWeatherType());
+            assertEquals(WeatherType.CLEAR, forecast.snapshots[1].getWeatherType());
+            assertEquals(WeatherType.RAIN, forecast.snapshots[3].getWeatherType());
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedResponses() {
+        String complete = "{\"latitude\":-45.86,\"current\":{\"temperature_2m\":8.0,\"weather_code\":61}}";
+        for (int length = 0; length < complete.length(); length++) {
+            assertParseFails(complete.substring(0, length));
+        }
+        assertParseFails("{\"current\":{\"temperature_2m\":8.0,\"weather_code\":61},\"note\":\"unterminated");
+        assertParseFails("{\"hourly\":{\"time\":[1,2,3");
+    }
+
+    @Test
+    public void rejectsMalformedJson() {
+        assertParseFails("\"current\"");
+        assertParseFails("{\"current\" {\"temperature_2m\":8.0,\"weather_code\":61}}");
+        assertParseFails("{\"current\":{\"temperature_2m\":8.0 \"weather_code\":61}}");
+        assertParseFails("{\"current\":{\"temperature_2m\":eight,\"weather_code\":61}}");
+        assertParseFails("{\"current\":{\"temperature_2m\":1.2.3,\"weather_code\":61}}");
+        assertParseFails("[{\"current\":{\"temperature_2m\":8.0,\"weather_code\":61}} {}]");
+        assertParseFails("{\"latitude\":-45.86}");
+    }
+
+    private List<WeatherSnapshot> parseCurrent(String json) throws IOException {
+        server.respondWithJson(json);
+        return new WeatherHttpClient().get(server.url("/v1/forecast"), parser::parse);
+    }
+
+    private List<OpenMeteoResponseParser.HourlyForecast> parseHourly(String json) throws IOException {
+        server.respondWithJson(json);
+        return new WeatherHttpClient().get(server.url("/v1/forecast"), parser::parseHourly);
+    }
+
+    private void assertParseFails(String json) {
+        try {
+            parseCurrent(json);
+            fail("Expected IOException for: " + json);
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage() != null);
+        }
+    }
+
+    private interface HourValue {
+        String at(int hour);
+    }
+
+    private static void appendArray(StringBuilder json, String name, int count, HourValue value) {
+        json.append('"').append(name).append("\":[");
+        for (int h = 0; h < count; h++) {
+            if (h > 0) {
+                json.append(',');
+            }
+            json.append(value.at(h));
+        }
+        json.append(']');
+    }
+}
@@ -0,0 +1,86 @@
+package com.fleet.safety.data.remote;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Loopback HTTP server for tests: answers every request with the current handler and keeps
+ * the request headers it saw.
+ */
+final class StubHttpServer implements Closeable {
+
+    interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private final HttpServer server;
+    private final List<Headers> requestHeaders = new CopyOnWriteArrayList<>();
+    private volatile Handler handler = exchange -> send(exchange, 404, new Headers(), new byte[0]);
+
+    StubHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requestHeaders.add(exchange.getRequestHeaders());
+            try {
+                handler.handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    String url(String pathAndQuery) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + pathAndQuery;
+    }
+
+    void setHandler(Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Answers every request with 200 and the given JSON.
+     */
+    void respondWithJson(String json) {
+        setHandler(exchange -> {
+            Headers headers = new Headers();
+            headers.set("Content-Type", "application/json");
+            send(exchange, 200, headers, json.getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    /**
+     * @return headers of every request received so far, in arrival order
+     */
+    List<Headers> getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    /**
+     * Sends a response; an empty body is sent without Content-Length, as a 304 must be.
+     */
+    static void send(HttpExchange exchange, int status, Headers headers, byte[] body) throws IOException {
+        exchange.getResponseHeaders().putAll(headers);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
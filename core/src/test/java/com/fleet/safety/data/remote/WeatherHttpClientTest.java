@@ -0,0 +1,215 @@
+package com.fleet.safety.data.remote;
+
+import com.fleet.safety.domain.WeatherSnapshot;
+import com.fleet.safety.domain.WeatherType;
+import com.sun.net.httpserver.Headers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WeatherHttpClientTest {
+
+    private static final String JSON =
+            "{\"current\":{\"temperature_2m\":6.5,\"precipitation\":0.7,\"weather_code\":61}}";
+    private static final String ETAG = "\"w/abc123\"";
+    private static final String LAST_MODIFIED = "Tue, 14 Oct 2025 10:00:00 GMT";
+
+    private StubHttpServer server;
+    private WeatherHttpClient client;
+    private final AtomicInteger parses = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        client = new WeatherHttpClient();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void requestsAndDecodesGzipBodies() throws IOException {
+        server.setHandler(exchange -> {
+            Headers headers = new Headers();
+            headers.set("Content-Encoding", "gzip");
+            StubHttpServer.send(exchange, 200, headers, gzip(JSON));
+        });
+
+        List<WeatherSnapshot> snapshots = client.get(server.url("/v1/forecast"), this::parse);
+
+        assertEquals("gzip", server.getRequestHeaders().get(0).getFirst("Accept-Encoding"));
+        assertEquals(WeatherType.RAIN, snapshots.get(0).getWeatherType());
+        assertEquals(6.5, snapshots.get(0).getTemperatureCelsius(), 1e-9);
+    }
+
+    @Test
+    public void readsPlainBodiesWhenTheServerDoesNotCompress() throws IOException {
+        server.respondWithJson(JSON);
+
+        String body = client.get(server.url("/v1/forecast"), WeatherHttpClientTest::readFully);
+
+        assertEquals(JSON, body);
+    }
+
+    @Test
+    public void sendsValidatorsFromThePreviousResponse() throws IOException {
+        server.setHandler(exchange -> StubHttpServer.send(exchange, 200, validators(), bytes(JSON)));
+        String url = server.url("/v1/forecast?latitude=-45.86&longitude=-67.48");
+
+        client.get(url, this::parse);
+        client.get(url, this::parse);
+
+        Headers first = server.getRequestHeaders().get(0);
+        Headers second = server.getRequestHeaders().get(1);
+        assertNull(first.getFirst("If-None-Match"));
+        assertNull(first.getFirst("If-Modified-Since"));
+        assertEquals(ETAG, second.getFirst("If-None-Match"));
+        assertEquals(LAST_MODIFIED, second.getFirst("If-Modified-Since"));
+    }
+
+    @Test
+    public void sendsNoConditionalHeadersWithoutValidators() throws IOException {
+        server.respondWithJson(JSON);
+        String url = server.url("/v1/forecast");
+
+        client.get(url, this::parse);
+        client.get(url, this::parse);
+
+        assertNull(server.getRequestHeaders().get(1).getFirst("If-None-Match"));
+        assertNull(server.getRequestHeaders().get(1).getFirst("If-Modified-Since"));
+    }
+
+    @Test
+    public void returnsTheCachedSnapshotOnNotModified() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        server.setHandler(exchange -> {
+            if (requests.getAndIncrement() == 0) {
+                StubHttpServer.send(exchange, 200, validators(), bytes(JSON));
+            } else {
+                StubHttpServer.send(exchange, 304, validators(), new byte[0]);
+            }
+        });
+        String url = server.url("/v1/forecast");
+
+        List<WeatherSnapshot> first = client.get(url, this::parse);
+        List<WeatherSnapshot> second = client.get(url, this::parse);
+
+        assertEquals(2, requests.get());
+        assertEquals(1, parses.get());
+        assertSame(first, second);
+    }
+
+    @Test
+    public void validatorsAreKeptPerUrl() throws IOException {
+        server.setHandler(exchange -> StubHttpServer.send(exchange, 200, validators(), bytes(JSON)));
+
+        client.get(server.url("/v1/forecast?latitude=1"), this::parse);
+        client.get(server.url("/v1/forecast?latitude=2"), this::parse);
+
+        assertNull(server.getRequestHeaders().get(1).getFirst("If-None-Match"));
+    }
+
+    @Test
+    public void failsOnNotModifiedWithoutACachedValue() throws IOException {
+        server.setHandler(exchange -> StubHttpServer.send(exchange, 304, new Headers(), new byte[0]));
+
+        try {
+            client.get(server.url("/v1/forecast"), this::parse);
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("304"));
+        }
+    }
+
+    @Test
+    public void failsOnServerErrors() throws IOException {
+        server.setHandler(exchange -> StubHttpServer.send(exchange, 503, new Headers(), bytes("busy")));
+
+        try {
+            client.get(server.url("/v1/forecast"), this::parse);
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("503"));
+        }
+        assertEquals(0, parses.get());
+    }
+
+    @Test
+    public void serviceRevalidatesAgainstTheInjectedBaseUrl() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        server.setHandler(exchange -> {
+            assertTrue(exchange.getRequestURI().getQuery().contains("current=temperature_2m"));
+            if (requests.getAndIncrement() == 0) {
+                Headers headers = validators();
+                headers.set("Content-Encoding", "gzip");
+                StubHttpServer.send(exchange, 200, headers, gzip(JSON));
+            } else {
+                StubHttpServer.send(exchange, 304, validators(), new byte[0]);
+            }
+        });
+        OpenMeteoWeatherService service = new OpenMeteoWeatherService(server.url("/v1/forecast"),
+                CallbackDispatcher.DIRECT);
+        try {
+            WeatherSnapshot first = service.getCurrent(-45.86, -67.48).get(5, TimeUnit.SECONDS);
+            WeatherSnapshot second = service.getCurrent(-45.86, -67.48).get(5, TimeUnit.SECONDS);
+
+            assertEquals(WeatherType.RAIN, first.getWeatherType());
+            assertSame(first, second);
+            assertEquals(ETAG, server.getRequestHeaders().get(1).getFirst("If-None-Match"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private List<WeatherSnapshot> parse(InputStream body) throws IOException {
+        parses.incrementAndGet();
+        return new OpenMeteoResponseParser().parse(body);
+    }
+
+    private static Headers validators() {
+        Headers headers = new Headers();
+        headers.set("ETag", ETAG);
+        headers.set("Last-Modified", LAST_MODIFIED);
+        return headers;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes(text));
+        }
+        return out.toByteArray();
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[512];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,46 @@
+package com.fleet.safety.domain;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class GradedWeatherPenaltyTest {
+
+    private final SpeedRuleEngine engine = new SpeedRuleEngine();
+    private final DriverSettings settings = DriverSettings.builder()
+            .withRoadType(RoadType.ASPHALT)
+            .withTimeOfDay(TimeOfDay.DAY)
+            .build();
+
+    @Test
+    public void dryColdHasNoPenalty() {
+        WeatherSnapshot dryFreezing = new WeatherSnapshot(0.0, 0.0, WeatherType.CLEAR);
+
+        assertEquals(0, GradedWeatherPenalty.penaltyFor(dryFreezing));
+        assertEquals("base 80", engine.computeMaxSpeedGraded(settings, dryFreezing).getReason());
+    }
+
+    @Test
+    public void coldAppliesWithPrecipitationOrReportedIce() {
+        assertEquals(GradedWeatherPenalty.temperaturePenalty(0.0),
+                GradedWeatherPenalty.coldPenalty(new WeatherSnapshot(0.0, 0.0, WeatherType.ICE)));
+        assertEquals(GradedWeatherPenalty.temperaturePenalty(0.0),
+                GradedWeatherPenalty.coldPenalty(new WeatherSnapshot(0.0, 0.5, WeatherType.RAIN)));
+    }
+
+    @Test
+    public void reasonNamesTheFactors() {
+        SpeedDecision rain = engine.computeMaxSpeedGraded(settings, new WeatherSnapshot(12.0, 1.0, WeatherType.RAIN));
+        SpeedDecision ice = engine.computeMaxSpeedGraded(settings, new WeatherSnapshot(0.0, 0.0, WeatherType.ICE));
+        SpeedDecision sleet = engine.computeMaxSpeedGraded(settings, new WeatherSnapshot(1.0, 1.0, WeatherType.SNOW));
+
+        assertEquals("base 80, -8 graded precipitation", rain.getReason());
+        assertEquals("base 80, -20 graded temperature", ice.getReason());
+        assertEquals("base 80, -21 graded precipitation and temperature", sleet.getReason());
+    }
+
+    @Test
+    public void worstCaseHasTheLargestPenalty() {
+        assertEquals(GradedWeatherPenalty.MAX_PENALTY, GradedWeatherPenalty.penaltyFor(WeatherSnapshot.WORST_CASE));
+    }
+}
@@ -0,0 +1,407 @@
+package com.fleet.safety.server;
+
+import com.fleet.safety.data.local.PersistentWeatherService;
+import com.fleet.safety.data.local.WeatherSnapshotStore;
+import com.fleet.safety.data.remote.WeatherBatchCallback;
+import com.fleet.safety.data.remote.WeatherService;
+import com.fleet.safety.domain.DriverSettings;
+import com.fleet.safety.domain.GridCell;
+import com.fleet.safety.domain.SolarCalculator;
+import com.fleet.safety.domain.SpeedConfig;
+import com.fleet.safety.domain.SpeedDecision;
+import com.fleet.safety.domain.SpeedRuleEngine;
+import com.fleet.safety.domain.WeatherSnapshot;
+import com.fleet.safety.metrics.Counter;
+import com.fleet.safety.metrics.LatencyHistogram;
+import com.fleet.safety.metrics.Metrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP endpoint that turns batches of vehicle telemetry into max-speed decisions.
+ *
+ * <pre>
+ * POST /v1/decisions   CSV telemetry (see {@link TelemetryBatch}), answers CSV:
+ *                      vehicle,max_speed_kmh,weather,reason
+ * GET  /metrics        plain-text {@link Metrics} dump
+ * GET  /health         "ok"
+ * </pre>
+ *
+ * Each request runs on its own thread, virtual when the runtime has them (see
+ * {@link ServerExecutors}), and blocks while the weather of the batch's grid cells is looked
+ * up. At most maxInFlight batches are evaluated at once; beyond that requests are answered
+ * 503 with Retry-After right away instead of queueing.
+ *
+ * The weather lookup never fails open. If it fails or times out, each cell uses the newest
+ * snapshot in the optional {@link WeatherSnapshotStore} that is at most maxWeatherAgeMillis old,
+ * reported as LAST_KNOWN:&lt;type&gt; in the weather column. A cell with no such snapshot is
+ * evaluated with {@link WeatherSnapshot#WORST_CASE} and reported as UNAVAILABLE. Successful
+ * lookups are written to the store. An unexpected error while evaluating is answered 500.
+ */
+public final class DecisionServer implements Closeable {
+
+    private static final String DECISIONS_PATH = "/v1/decisions";
+    private static final String UNAVAILABLE = "UNAVAILABLE";
+    private static final String LAST_KNOWN_PREFIX = "LAST_KNOWN:";
+
+    private static final Counter REQUESTS = Metrics.counter("server.requests");
+    private static final Counter REJECTED = Metrics.counter("server.rejected");
+    private static final Counter DECISIONS = Metrics.counter("server.decisions");
+    private static final Counter WEATHER_FALLBACKS = Metrics.counter("server.weather_fallbacks");
+    private static final Counter ERRORS = Metrics.counter("server.errors");
+    private static final LatencyHistogram REQUEST = Metrics.histogram("server.request");
+    private static final LatencyHistogram WEATHER = Metrics.histogram("server.weather");
+
+    private final WeatherService weatherService;
+    private final SpeedRuleEngine engine;
+    private final WeatherSnapshotStore weatherStore;
+    private final long maxWeatherAgeMillis;
+    private final SolarCalculator solarCalculator = new SolarCalculator();
+    private final Semaphore inFlight;
+    private final int maxBatchSize;
+    private final long maxBodyBytes;
+    private final long weatherTimeoutMillis;
+    private final int fallbackThreads;
+    private final int queueCapacity;
+
+    private HttpServer server;
+    private ExecutorService requestExecutor;
+
+    private DecisionServer(Builder builder) {
+        this.weatherService = builder.weatherService;
+        this.engine = builder.engine;
+        this.weatherStore = builder.weatherStore;
+        this.maxWeatherAgeMillis = builder.maxWeatherAgeMillis;
+        this.inFlight = new Semaphore(builder.maxInFlight);
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxBodyBytes = builder.maxBodyBytes;
+        this.weatherTimeoutMillis = builder.weatherTimeoutMillis;
+        this.fallbackThreads = builder.fallbackThreads;
+        this.queueCapacity = builder.queueCapacity;
+    }
+
+    public static Builder builder(WeatherService weatherService, SpeedRuleEngine engine) {
+        return new Builder(weatherService, engine);
+    }
+
+    /**
+     * Starts listening; port 0 picks a free port.
+     *
+     * @return the bound port
+     */
+    public synchronized int start(InetSocketAddress address) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        requestExecutor = ServerExecutors.newThreadPerTaskExecutor("decision-request", fallbackThreads, queueCapacity);
+        server = HttpServer.create(address, queueCapacity);
+        server.setExecutor(requestExecutor);
+        server.createContext(DECISIONS_PATH, this::handleDecisions);
+        server.createContext("/metrics", exchange -> respond(exchange, 200, "text/plain", Metrics.snapshot().toString()));
+        server.createContext("/health", exchange -> respond(exchange, 200, "text/plain", "ok\n"));
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            requestExecutor.shutdownNow();
+            server = null;
+        }
+    }
+
+    private void handleDecisions(HttpExchange exchange) throws IOException {
+        long start = Metrics.startTimer();
+        REQUESTS.increment();
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "text/plain", "POST telemetry CSV\n");
+                return;
+            }
+            if (!inFlight.tryAcquire()) {
+                REJECTED.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, "text/plain", "Too many batches in flight\n");
+                return;
+            }
+            try {
+                TelemetryBatch batch;
+                try (InputStream body = new LimitedInputStream(exchange.getRequestBody(), maxBodyBytes)) {
+                    batch = TelemetryBatch.parse(new InputStreamReader(body, StandardCharsets.UTF_8), maxBatchSize);
+                } catch (IllegalArgumentException e) {
+                    respond(exchange, 400, "text/plain", e.getMessage() + "\n");
+                    return;
+                } catch (BodyTooLargeException e) {
+                    respond(exchange, 413, "text/plain", e.getMessage() + "\n");
+                    return;
+                }
+                String decisions;
+                try {
+                    decisions = evaluate(batch);
+                } catch (RuntimeException e) {
+                    ERRORS.increment();
+                    respond(exchange, 500, "text/plain", "Evaluation failed\n");
+                    return;
+                }
+                respond(exchange, 200, "text/csv", decisions);
+            } finally {
+                inFlight.release();
+            }
+        } finally {
+            exchange.close();
+            REQUEST.recordSince(start);
+        }
+    }
+
+    private String evaluate(TelemetryBatch batch) {
+        double[] cellLatitudes = batch.cellLatitudes();
+        double[] cellLongitudes = batch.cellLongitudes();
+        WeatherSnapshot[] cellWeather = new WeatherSnapshot[batch.cellCount()];
+        String[] cellLabels = new String[cellWeather.length];
+        resolveWeather(cellLatitudes, cellLongitudes, lookUpWeather(cellLatitudes, cellLongitudes),
+                cellWeather, cellLabels);
+        SpeedConfig config = engine.getConfig();
+
+        StringBuilder out = new StringBuilder(batch.size() * 64);
+        out.append("vehicle,max_speed_kmh,weather,reason\n");
+        for (int i = 0; i < batch.size(); i++) {
+            WeatherSnapshot weather = cellWeather[batch.cellIndex(i)];
+            DriverSettings settings = DriverSettings.builder()
+                    .withRoadType(batch.roadType(i))
+                    .withSolarTimeOfDay(solarCalculator, batch.latitude(i), batch.longitude(i),
+                            batch.timestampMillis(i))
+                    .withConfig(config)
+                    .build();
+            SpeedDecision decision = engine.computeMaxSpeed(settings, weather);
+            out.append(batch.vehicle(i)).append(',')
+                    .append(decision.getMaxSpeedKmh()).append(',')
+                    .append(cellLabels[batch.cellIndex(i)]).append(",\"")
+                    .append(decision.getReason().replace("\"", "\"\"")).append("\"\n");
+        }
+        DECISIONS.add(batch.size());
+        return out.toString();
+    }
+
+    /**
+     * Fills the weather and weather-column label of every cell: the fetched snapshot if there is
+     * one, else the last known one from the store, else the worst case.
+     */
+    private void resolveWeather(double[] latitudes, double[] longitudes, List<WeatherSnapshot> fetched,
+                                WeatherSnapshot[] weather, String[] labels) {
+        long now = System.currentTimeMillis();
+        for (int cell = 0; cell < weather.length; cell++) {
+            long key = GridCell.keyOf(latitudes[cell], longitudes[cell]);
+            WeatherSnapshot snapshot = fetched != null ? fetched.get(cell) : null;
+            if (snapshot != null) {
+                weather[cell] = snapshot;
+                labels[cell] = snapshot.getWeatherType().name();
+                if (weatherStore != null) {
+                    weatherStore.put(key, snapshot, now);
+                }
+                continue;
+            }
+            WeatherSnapshot stored = weatherStore != null ? weatherStore.find(key, maxWeatherAgeMillis, now) : null;
+            if (stored != null) {
+                weather[cell] = stored;
+                labels[cell] = LAST_KNOWN_PREFIX + stored.getWeatherType().name();
+            } else {
+                weather[cell] = WeatherSnapshot.WORST_CASE;
+                labels[cell] = UNAVAILABLE;
+            }
+        }
+    }
+
+    /**
+     * Looks up every distinct cell of the batch with one batch call and waits for it.
+     *
+     * @return one snapshot per cell, or null if the lookup failed or timed out
+     */
+    private List<WeatherSnapshot> lookUpWeather(double[] latitudes, double[] longitudes) {
+        long start = Metrics.startTimer();
+        CompletableFuture<List<WeatherSnapshot>> result = new CompletableFuture<>();
+        try {
+            weatherService.getCurrentBatchAsync(latitudes, longitudes, new WeatherBatchCallback() {
+                @Override
+                public void onSuccess(List<WeatherSnapshot> snapshots) {
+                    result.complete(snapshots);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            return result.get(weatherTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            // Fall through to last-known or worst-case weather.
+        } finally {
+            WEATHER.recordSince(start);
+        }
+        WEATHER_FALLBACKS.increment();
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException(long limit) {
+            super("Request body exceeds " + limit + " bytes");
+        }
+    }
+
+    /**
+     * Fails the read once more than limit bytes have come in, so oversized bodies are not buffered.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) throws IOException {
+            count += read;
+            if (count > limit) {
+                throw new BodyTooLargeException(limit);
+            }
+        }
+    }
+
+    public static class Builder {
+        private final WeatherService weatherService;
+        private final SpeedRuleEngine engine;
+        private WeatherSnapshotStore weatherStore;
+        private long maxWeatherAgeMillis = PersistentWeatherService.DEFAULT_MAX_AGE_MILLIS;
+        private int maxInFlight = 256;
+        private int maxBatchSize = 10_000;
+        private long maxBodyBytes = 1024 * 1024;
+        private long weatherTimeoutMillis = 2000;
+        private int fallbackThreads = 256;
+        private int queueCapacity = 1024;
+
+        private Builder(WeatherService weatherService, SpeedRuleEngine engine) {
+            this.weatherService = weatherService;
+            this.engine = engine;
+        }
+
+        /**
+         * Keeps the last fetched snapshot per cell, used when a weather lookup fails.
+         */
+        public Builder withWeatherStore(WeatherSnapshotStore weatherStore) {
+            this.weatherStore = weatherStore;
+            return this;
+        }
+
+        /**
+         * Oldest stored snapshot still used instead of the worst case.
+         */
+        public Builder withMaxWeatherAgeMillis(long maxWeatherAgeMillis) {
+            this.maxWeatherAgeMillis = maxWeatherAgeMillis;
+            return this;
+        }
+
+        /**
+         * Batches evaluated at once; further requests get 503.
+         */
+        public Builder withMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        public Builder withMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder withMaxBodyBytes(long maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+            return this;
+        }
+
+        public Builder withWeatherTimeoutMillis(long weatherTimeoutMillis) {
+            this.weatherTimeoutMillis = weatherTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Request threads when virtual threads are not available.
+         */
+        public Builder withFallbackThreads(int fallbackThreads) {
+            this.fallbackThreads = fallbackThreads;
+            return this;
+        }
+
+        /**
+         * Bounds both the accept backlog and, without virtual threads, the request queue.
+         */
+        public Builder withQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public DecisionServer build() {
+            if (weatherService == null || engine == null) {
+                throw new IllegalArgumentException("Weather service and engine cannot be null");
+            }
+            if (maxInFlight <= 0 || maxBatchSize <= 0 || maxBodyBytes <= 0 || weatherTimeoutMillis <= 0
+                    || maxWeatherAgeMillis <= 0) {
+                throw new IllegalArgumentException("Limits and timeout must be positive");
+            }
+            if (fallbackThreads <= 0 || queueCapacity <= 0) {
+                throw new IllegalArgumentException("Fallback threads and queue capacity must be positive");
+            }
+            return new DecisionServer(this);
+        }
+    }
+}
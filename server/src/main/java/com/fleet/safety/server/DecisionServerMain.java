@@ -0,0 +1,100 @@
+package com.fleet.safety.server;
+
+import com.fleet.safety.data.local.WeatherSnapshotStore;
+import com.fleet.safety.data.remote.CachingWeatherService;
+import com.fleet.safety.data.remote.CallbackDispatcher;
+import com.fleet.safety.data.remote.CoalescingWeatherService;
+import com.fleet.safety.data.remote.OpenMeteoWeatherService;
+import com.fleet.safety.data.remote.WeatherService;
+import com.fleet.safety.domain.GridCell;
+import com.fleet.safety.domain.SpeedRuleEngine;
+import com.fleet.safety.metrics.Metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Runs a {@link DecisionServer} backed by Open-Meteo (or any compatible endpoint) until the
+ * process is stopped.
+ *
+ * <pre>
+ * ./gradlew :server:run --args="--port=8080 --weather-url=http://127.0.0.1:9000/v1/forecast"
+ * </pre>
+ *
+ * With --weather-store=FILE the last snapshot per cell is kept on disk and used when the
+ * weather lookup fails; without it such cells are evaluated with the worst-case weather.
+ */
+public final class DecisionServerMain {
+
+    private static final int WEATHER_FALLBACK_THREADS = 64;
+    private static final int WEATHER_QUEUE_CAPACITY = 1024;
+    private static final int CACHED_CELLS = 16_384;
+    private static final int STORED_CELLS = 16_384;
+
+    private DecisionServerMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 8080;
+        String weatherUrl = OpenMeteoWeatherService.DEFAULT_BASE_URL;
+        int maxInFlight = 256;
+        String weatherStorePath = null;
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--weather-url=")) {
+                weatherUrl = arg.substring("--weather-url=".length());
+            } else if (arg.startsWith("--max-in-flight=")) {
+                maxInFlight = Integer.parseInt(arg.substring("--max-in-flight=".length()));
+            } else if (arg.startsWith("--weather-store=")) {
+                weatherStorePath = arg.substring("--weather-store=".length());
+            } else {
+                System.err.println("Usage: [--port=8080] [--weather-url=URL] [--max-in-flight=256]"
+                        + " [--weather-store=FILE]");
+                System.exit(2);
+            }
+        }
+
+        Metrics.setEnabled(true);
+        OpenMeteoWeatherService network = newWeatherClient(weatherUrl);
+        WeatherSnapshotStore weatherStore = weatherStorePath != null
+                ? new WeatherSnapshotStore(new File(weatherStorePath), STORED_CELLS) : null;
+        DecisionServer server = DecisionServer.builder(newWeatherService(network), new SpeedRuleEngine())
+                .withMaxInFlight(maxInFlight)
+                .withWeatherStore(weatherStore)
+                .build();
+        int boundPort = server.start(new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            network.shutdown();
+            if (weatherStore != null) {
+                try {
+                    weatherStore.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close weather store: " + e.getMessage());
+                }
+            }
+        }));
+        System.out.println("Decision server on port " + boundPort + ", weather from " + weatherUrl
+                + (ServerExecutors.virtualThreadsAvailable() ? ", virtual threads" : ", platform thread pools"));
+    }
+
+    /**
+     * Weather client whose HTTP requests also run one per (virtual) thread.
+     */
+    public static OpenMeteoWeatherService newWeatherClient(String weatherUrl) {
+        return new OpenMeteoWeatherService(weatherUrl,
+                ServerExecutors.newThreadPerTaskExecutor("weather-io", WEATHER_FALLBACK_THREADS, WEATHER_QUEUE_CAPACITY),
+                CallbackDispatcher.DIRECT);
+    }
+
+    /**
+     * The same cache and request coalescing the app uses, sized for a fleet instead of one vehicle.
+     */
+    public static WeatherService newWeatherService(OpenMeteoWeatherService network) {
+        return new CachingWeatherService(new CoalescingWeatherService(network),
+                CachingWeatherService.DEFAULT_TTL_MILLIS, CachingWeatherService.DEFAULT_STALE_WINDOW_MILLIS,
+                CACHED_CELLS, GridCell.DEFAULT_CELL_DEGREES);
+    }
+}
@@ -0,0 +1,64 @@
+package com.fleet.safety.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-per-task executors on virtual threads when the runtime has them (Java 21+), or bounded
+ * platform thread pools otherwise. The modules target Java 11, so the virtual thread factory is
+ * looked up reflectively.
+ */
+public final class ServerExecutors {
+
+    private ServerExecutors() {
+    }
+
+    /**
+     * @return true if {@link #newThreadPerTaskExecutor} hands out virtual threads
+     */
+    public static boolean virtualThreadsAvailable() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        if (executor == null) {
+            return false;
+        }
+        executor.shutdown();
+        return true;
+    }
+
+    /**
+     * One virtual thread per task; without virtual threads, a pool of fallbackThreads platform
+     * threads over a queue of queueCapacity tasks. When both are full the submitting thread runs
+     * the task itself, which slows it down instead of dropping work.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String name, int fallbackThreads, int queueCapacity) {
+        if (fallbackThreads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Fallback threads and queue capacity must be positive");
+        }
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        if (executor != null) {
+            return executor;
+        }
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(fallbackThreads, fallbackThreads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // Older runtime, or Java 19/20 without --enable-preview.
+            return null;
+        }
+    }
+}
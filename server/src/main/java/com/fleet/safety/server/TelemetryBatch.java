@@ -0,0 +1,170 @@
+package com.fleet.safety.server;
+
+import com.fleet.safety.domain.GridCell;
+import com.fleet.safety.domain.RoadType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One request worth of vehicle telemetry, parsed from CSV into parallel columns:
+ *
+ * <pre>
+ * vehicle,epoch_millis,latitude,longitude,road
+ * truck-17,1718971200000,-45.8612,-67.4801,GRAVEL
+ * </pre>
+ *
+ * The header line is optional and the road column may be omitted (ASPHALT). Reports are also
+ * grouped by grid cell so the weather of each cell is looked up once per batch.
+ */
+final class TelemetryBatch {
+
+    private static final RoadType[] ROAD_TYPES = RoadType.values();
+
+    private String[] vehicles;
+    private long[] timestamps;
+    private double[] latitudes;
+    private double[] longitudes;
+    private byte[] roads;
+    private int[] cellIndexes;
+    private int size;
+
+    private double[] cellLatitudes;
+    private double[] cellLongitudes;
+    private int cellCount;
+
+    private TelemetryBatch(int capacity) {
+        vehicles = new String[capacity];
+        timestamps = new long[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        roads = new byte[capacity];
+    }
+
+    /**
+     * @param maxReports Largest batch accepted
+     * @throws IllegalArgumentException if a line is malformed, the batch is empty or too large
+     */
+    static TelemetryBatch parse(Reader in, int maxReports) throws IOException {
+        TelemetryBatch batch = new TelemetryBatch(Math.min(maxReports, 256));
+        BufferedReader reader = new BufferedReader(in);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || (lineNumber == 1 && line.startsWith("vehicle"))) {
+                continue;
+            }
+            if (batch.size == maxReports) {
+                throw new IllegalArgumentException("Batch exceeds " + maxReports + " reports");
+            }
+            batch.add(line, lineNumber);
+        }
+        if (batch.size == 0) {
+            throw new IllegalArgumentException("Batch has no reports");
+        }
+        batch.groupByCell();
+        return batch;
+    }
+
+    private void add(String line, int lineNumber) {
+        String[] fields = line.split(",");
+        if (fields.length < 4 || fields.length > 5) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected 4 or 5 fields");
+        }
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            vehicles = Arrays.copyOf(vehicles, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            roads = Arrays.copyOf(roads, capacity);
+        }
+        try {
+            vehicles[size] = fields[0].trim();
+            timestamps[size] = Long.parseLong(fields[1].trim());
+            latitudes[size] = Double.parseDouble(fields[2].trim());
+            longitudes[size] = Double.parseDouble(fields[3].trim());
+            roads[size] = (byte) (fields.length == 5
+                    ? RoadType.valueOf(fields[4].trim().toUpperCase(Locale.US)).ordinal()
+                    : RoadType.ASPHALT.ordinal());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+        }
+        // Written as !(x <= limit) so NaN is rejected too.
+        if (!(Math.abs(latitudes[size]) <= 90) || !(Math.abs(longitudes[size]) <= 180)) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": coordinates out of range");
+        }
+        size++;
+    }
+
+    private void groupByCell() {
+        Map<Long, Integer> cells = new HashMap<>();
+        cellIndexes = new int[size];
+        cellLatitudes = new double[size];
+        cellLongitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            long key = GridCell.keyOf(latitudes[i], longitudes[i]);
+            Integer cell = cells.get(key);
+            if (cell == null) {
+                cell = cellCount++;
+                cells.put(key, cell);
+                cellLatitudes[cell] = GridCell.centerLatitude(key, GridCell.DEFAULT_CELL_DEGREES);
+                cellLongitudes[cell] = GridCell.centerLongitude(key, GridCell.DEFAULT_CELL_DEGREES);
+            }
+            cellIndexes[i] = cell;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    String vehicle(int index) {
+        return vehicles[index];
+    }
+
+    long timestampMillis(int index) {
+        return timestamps[index];
+    }
+
+    double latitude(int index) {
+        return latitudes[index];
+    }
+
+    double longitude(int index) {
+        return longitudes[index];
+    }
+
+    RoadType roadType(int index) {
+        return ROAD_TYPES[roads[index]];
+    }
+
+    /**
+     * @return index into the cell columns of the cell the report falls in
+     */
+    int cellIndex(int index) {
+        return cellIndexes[index];
+    }
+
+    int cellCount() {
+        return cellCount;
+    }
+
+    /**
+     * @return center latitude of each distinct cell, cellCount() long
+     */
+    double[] cellLatitudes() {
+        return Arrays.copyOf(cellLatitudes, cellCount);
+    }
+
+    double[] cellLongitudes() {
+        return Arrays.copyOf(cellLongitudes, cellCount);
+    }
+}
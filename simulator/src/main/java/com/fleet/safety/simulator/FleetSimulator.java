@@ -0,0 +1,201 @@
+package com.fleet.safety.simulator;
+
+import com.fleet.safety.data.remote.CachingWeatherService;
+import com.fleet.safety.data.remote.CallbackDispatcher;
+import com.fleet.safety.data.remote.CoalescingWeatherService;
+import com.fleet.safety.data.remote.OpenMeteoWeatherService;
+import com.fleet.safety.data.remote.WeatherRequestOptions;
+import com.fleet.safety.data.remote.WeatherService;
+import com.fleet.safety.domain.DriverSettings;
+import com.fleet.safety.domain.GridCell;
+import com.fleet.safety.domain.SolarCalculator;
+import com.fleet.safety.domain.SpeedConfig;
+import com.fleet.safety.domain.SpeedRuleEngine;
+import com.fleet.safety.domain.WeatherSnapshot;
+import com.fleet.safety.metrics.LatencyHistogram;
+import com.fleet.safety.metrics.Metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a fleet trace through the same weather stack and rule engine the app uses, against a
+ * local stub of the forecast server, and reports what a server-side deployment would have to
+ * sustain.
+ *
+ * Every position report becomes one weather lookup through CachingWeatherService,
+ * CoalescingWeatherService and OpenMeteoWeatherService, followed by one SpeedRuleEngine
+ * decision with the road type of the report and the solar time of day. At most
+ * {@link SimulationOptions#getConcurrency()} reports are in flight at once.
+ *
+ * <pre>
+ * ./gradlew :simulator:run --args="--vehicles=10000 --steps=30 --latency-ms=120"
+ * </pre>
+ */
+public final class FleetSimulator {
+
+    private static final long HEAP_SAMPLE_MILLIS = 20;
+
+    private final SimulationOptions options;
+
+    public FleetSimulator(SimulationOptions options) {
+        if (options == null) {
+            throw new IllegalArgumentException("Options cannot be null");
+        }
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SimulationOptions options;
+        try {
+            options = SimulationOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(SimulationOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        FleetTrace trace = options.getTracePath() != null
+                ? FleetTrace.load(new File(options.getTracePath()))
+                : FleetTrace.synthetic(options.getVehicles(), options.getSteps(), options.getIntervalMillis(),
+                        OpenMeteoWeatherService.COMODORO_LATITUDE, OpenMeteoWeatherService.COMODORO_LONGITUDE,
+                        1.0, System.currentTimeMillis(), options.getSeed());
+        if (options.getWriteTracePath() != null) {
+            trace.writeTo(new File(options.getWriteTracePath()));
+        }
+
+        SimulationReport report = new FleetSimulator(options).run(trace);
+        report.writeTo(System.out);
+        System.out.println();
+        System.out.print(Metrics.snapshot());
+    }
+
+    /**
+     * Replays the trace once. Metrics are enabled and reset at the start of the run, so the
+     * {@link Metrics} snapshot afterwards breaks the run down by phase.
+     */
+    public SimulationReport run(FleetTrace trace) throws IOException, InterruptedException {
+        Metrics.setEnabled(true);
+        Metrics.reset();
+        LatencyHistogram latency = Metrics.histogram("simulator.decision");
+
+        try (StubWeatherServer server = new StubWeatherServer(options.getServerThreads(),
+                options.getLatencyMillis(), options.getJitterMillis(), options.getErrorRate());
+             HeapSampler heap = new HeapSampler()) {
+            OpenMeteoWeatherService network = new OpenMeteoWeatherService(server.start(),
+                    OpenMeteoWeatherService.newBoundedExecutor(options.getIoThreads(), 2 * options.getConcurrency()),
+                    CallbackDispatcher.DIRECT);
+            WeatherService weatherService = new CachingWeatherService(new CoalescingWeatherService(network),
+                    options.getCacheTtlMillis(), options.getCacheStaleWindowMillis(), options.getCacheEntries(),
+                    GridCell.DEFAULT_CELL_DEGREES);
+            WeatherRequestOptions requestOptions = WeatherRequestOptions.builder()
+                    .withDeadlineMillis(options.getDeadlineMillis())
+                    .build();
+            SpeedRuleEngine engine = new SpeedRuleEngine();
+            SolarCalculator solarCalculator = new SolarCalculator();
+
+            Semaphore inFlight = new Semaphore(options.getConcurrency());
+            LongAdder weatherErrors = new LongAdder();
+            long startNanos = System.nanoTime();
+
+            try {
+                for (int i = 0; i < trace.size(); i++) {
+                    pace(trace, i, startNanos);
+                    inFlight.acquire();
+
+                    long submittedNanos = System.nanoTime();
+                    SpeedConfig config = engine.getConfig();
+                    DriverSettings settings = DriverSettings.builder()
+                            .withRoadType(trace.roadType(i))
+                            .withSolarTimeOfDay(solarCalculator, trace.latitude(i), trace.longitude(i),
+                                    trace.timestampMillis(i))
+                            .withConfig(config)
+                            .build();
+                    weatherService.getCurrent(trace.latitude(i), trace.longitude(i), requestOptions)
+                            .whenComplete((weather, error) -> {
+                                try {
+                                    WeatherSnapshot evaluated = weather;
+                                    if (error != null) {
+                                        weatherErrors.increment();
+                                        evaluated = WeatherSnapshot.WORST_CASE;
+                                    }
+                                    engine.computeMaxSpeed(settings, evaluated);
+                                    latency.recordSince(submittedNanos);
+                                } finally {
+                                    inFlight.release();
+                                }
+                            });
+                }
+                inFlight.acquire(options.getConcurrency());
+                long elapsedNanos = System.nanoTime() - startNanos;
+
+                return new SimulationReport(trace.vehicleCount(), trace.endMillis() - trace.startMillis(),
+                        trace.size(), elapsedNanos, latency.snapshot(), weatherErrors.sum(),
+                        server.getRequestCount(), server.getLocationCount(), server.getErrorCount(),
+                        heap.peakBytes(), heap.retainedBytes());
+            } finally {
+                network.shutdown();
+            }
+        }
+    }
+
+    /**
+     * With a speedup set, waits until the report is due relative to the start of the replay.
+     */
+    private void pace(FleetTrace trace, int index, long startNanos) throws InterruptedException {
+        if (options.getSpeedup() <= 0) {
+            return;
+        }
+        long dueNanos = startNanos + (long) ((trace.timestampMillis(index) - trace.startMillis())
+                * 1_000_000L / options.getSpeedup());
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Samples heap usage in the background to find the peak of the run.
+     */
+    private static final class HeapSampler implements AutoCloseable {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final LongAccumulator peak = new LongAccumulator(Math::max, 0L);
+        private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "heap-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        HeapSampler() {
+            sampler.scheduleAtFixedRate(this::sample, 0, HEAP_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        private void sample() {
+            peak.accumulate(memory.getHeapMemoryUsage().getUsed());
+        }
+
+        long peakBytes() {
+            sample();
+            return peak.get();
+        }
+
+        long retainedBytes() {
+            memory.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+
+        @Override
+        public void close() {
+            sampler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.fleet.safety.simulator;
+
+import com.fleet.safety.domain.RoadType;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Position reports of a fleet, ordered by timestamp and stored as parallel primitive columns.
+ *
+ * The CSV form has one report per line:
+ *
+ * <pre>
+ * vehicle,epoch_millis,latitude,longitude,road
+ * 17,1718971200000,-45.8612,-67.4801,GRAVEL
+ * </pre>
+ *
+ * The header line is optional and the road column may be omitted (ASPHALT).
+ */
+public final class FleetTrace {
+
+    private static final RoadType[] ROAD_TYPES = RoadType.values();
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private final int[] vehicles;
+    private final long[] timestamps;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final byte[] roads;
+    private final int vehicleCount;
+
+    private FleetTrace(int[] vehicles, long[] timestamps, double[] latitudes, double[] longitudes,
+                       byte[] roads) {
+        this.vehicles = vehicles;
+        this.timestamps = timestamps;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.roads = roads;
+        this.vehicleCount = (int) Arrays.stream(vehicles).distinct().count();
+    }
+
+    /**
+     * Generates vehicles that start at random points within radiusDegrees of the center and
+     * drive at 30-100 km/h with a slowly drifting heading. A quarter of them are on gravel.
+     *
+     * @param vehicles       Number of vehicles
+     * @param steps          Reports per vehicle
+     * @param intervalMillis Time between two reports of the same vehicle
+     * @param seed           Seed of the generator, so runs are repeatable
+     */
+    public static FleetTrace synthetic(int vehicles, int steps, long intervalMillis, double centerLatitude,
+                                       double centerLongitude, double radiusDegrees, long startMillis, long seed) {
+        if (vehicles <= 0 || steps <= 0 || intervalMillis <= 0) {
+            throw new IllegalArgumentException("Vehicles, steps and interval must be positive");
+        }
+        long size = (long) vehicles * steps;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Trace too large: " + size + " reports");
+        }
+
+        Random random = new Random(seed);
+        double[] latitude = new double[vehicles];
+        double[] longitude = new double[vehicles];
+        double[] heading = new double[vehicles];
+        double[] metersPerStep = new double[vehicles];
+        byte[] road = new byte[vehicles];
+        for (int v = 0; v < vehicles; v++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double distance = Math.sqrt(random.nextDouble()) * radiusDegrees;
+            latitude[v] = centerLatitude + distance * Math.sin(angle);
+            longitude[v] = centerLongitude + distance * Math.cos(angle);
+            heading[v] = random.nextDouble() * 2 * Math.PI;
+            metersPerStep[v] = (30 + random.nextDouble() * 70) / 3.6 * intervalMillis / 1000.0;
+            road[v] = (byte) (random.nextInt(4) == 0 ? RoadType.GRAVEL.ordinal() : RoadType.ASPHALT.ordinal());
+        }
+
+        int[] vehicleColumn = new int[(int) size];
+        long[] timestampColumn = new long[(int) size];
+        double[] latitudeColumn = new double[(int) size];
+        double[] longitudeColumn = new double[(int) size];
+        byte[] roadColumn = new byte[(int) size];
+        int index = 0;
+        for (int step = 0; step < steps; step++) {
+            long timestamp = startMillis + step * intervalMillis;
+            for (int v = 0; v < vehicles; v++) {
+                vehicleColumn[index] = v;
+                timestampColumn[index] = timestamp;
+                latitudeColumn[index] = latitude[v];
+                longitudeColumn[index] = longitude[v];
+                roadColumn[index] = road[v];
+                index++;
+
+                heading[v] += (random.nextDouble() - 0.5) * 0.2;
+                double meters = metersPerStep[v];
+                latitude[v] += meters * Math.cos(heading[v]) / METERS_PER_DEGREE;
+                longitude[v] += meters * Math.sin(heading[v])
+                        / (METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude[v]))));
+            }
+        }
+        return new FleetTrace(vehicleColumn, timestampColumn, latitudeColumn, longitudeColumn, roadColumn);
+    }
+
+    /**
+     * Reads a recorded trace in the CSV form described above; reports are sorted by timestamp.
+     *
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static FleetTrace load(File file) throws IOException {
+        int capacity = 1024;
+        int[] vehicles = new int[capacity];
+        long[] timestamps = new long[capacity];
+        double[] latitudes = new double[capacity];
+        double[] longitudes = new double[capacity];
+        byte[] roads = new byte[capacity];
+        int size = 0;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && line.startsWith("vehicle"))) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length < 4 || fields.length > 5) {
+                    throw new IllegalArgumentException("Trace line " + lineNumber + ": expected 4 or 5 fields");
+                }
+                if (size == capacity) {
+                    capacity *= 2;
+                    vehicles = Arrays.copyOf(vehicles, capacity);
+                    timestamps = Arrays.copyOf(timestamps, capacity);
+                    latitudes = Arrays.copyOf(latitudes, capacity);
+                    longitudes = Arrays.copyOf(longitudes, capacity);
+                    roads = Arrays.copyOf(roads, capacity);
+                }
+                try {
+                    vehicles[size] = Integer.parseInt(fields[0].trim());
+                    timestamps[size] = Long.parseLong(fields[1].trim());
+                    latitudes[size] = Double.parseDouble(fields[2].trim());
+                    longitudes[size] = Double.parseDouble(fields[3].trim());
+                    roads[size] = (byte) (fields.length == 5
+                            ? RoadType.valueOf(fields[4].trim().toUpperCase(Locale.US)).ordinal()
+                            : RoadType.ASPHALT.ordinal());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Trace line " + lineNumber + ": " + e.getMessage(), e);
+                }
+                size++;
+            }
+        }
+        if (size == 0) {
+            throw new IllegalArgumentException("Trace " + file + " has no reports");
+        }
+
+        long[] sortedTimestamps = timestamps;
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> sortedTimestamps[i]));
+
+        int[] vehicleColumn = new int[size];
+        long[] timestampColumn = new long[size];
+        double[] latitudeColumn = new double[size];
+        double[] longitudeColumn = new double[size];
+        byte[] roadColumn = new byte[size];
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            vehicleColumn[i] = vehicles[from];
+            timestampColumn[i] = timestamps[from];
+            latitudeColumn[i] = latitudes[from];
+            longitudeColumn[i] = longitudes[from];
+            roadColumn[i] = roads[from];
+        }
+        return new FleetTrace(vehicleColumn, timestampColumn, latitudeColumn, longitudeColumn, roadColumn);
+    }
+
+    public void writeTo(File file) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write("vehicle,epoch_millis,latitude,longitude,road\n");
+            for (int i = 0; i < size(); i++) {
+                writer.write(String.format(Locale.US, "%d,%d,%.6f,%.6f,%s%n", vehicles[i], timestamps[i],
+                        latitudes[i], longitudes[i], roadType(i)));
+            }
+        }
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public int vehicleCount() {
+        return vehicleCount;
+    }
+
+    public int vehicle(int index) {
+        return vehicles[index];
+    }
+
+    public long timestampMillis(int index) {
+        return timestamps[index];
+    }
+
+    public double latitude(int index) {
+        return latitudes[index];
+    }
+
+    public double longitude(int index) {
+        return longitudes[index];
+    }
+
+    public RoadType roadType(int index) {
+        return ROAD_TYPES[roads[index]];
+    }
+
+    public long startMillis() {
+        return timestamps[0];
+    }
+
+    public long endMillis() {
+        return timestamps[timestamps.length - 1];
+    }
+}
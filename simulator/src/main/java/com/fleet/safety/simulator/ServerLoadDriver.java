@@ -0,0 +1,240 @@
+package com.fleet.safety.simulator;
+
+import com.fleet.safety.data.remote.OpenMeteoWeatherService;
+import com.fleet.safety.domain.SpeedRuleEngine;
+import com.fleet.safety.metrics.LatencyHistogram;
+import com.fleet.safety.metrics.Metrics;
+import com.fleet.safety.server.DecisionServer;
+import com.fleet.safety.server.DecisionServerMain;
+import com.fleet.safety.server.ServerExecutors;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for {@link DecisionServer}: posts a synthetic fleet trace as telemetry batches from
+ * many concurrent clients and reports request and decision throughput, request latency and how
+ * often the server pushed back with 503.
+ *
+ * By default the server runs in-process in front of a {@link StubWeatherServer}; with
+ * {@code --target=http://host:port} an already running server is loaded instead.
+ *
+ * <pre>
+ * ./gradlew :simulator:loadTest --args="--vehicles=10000 --batch-size=500 --clients=64"
+ * </pre>
+ */
+public final class ServerLoadDriver {
+
+    private static final String USAGE = "Options (defaults in brackets):\n"
+            + "  --vehicles=N      synthetic vehicles [10000]\n"
+            + "  --steps=N         reports per vehicle [10]\n"
+            + "  --batch-size=N    reports per request [500]\n"
+            + "  --clients=N       concurrent clients [64]\n"
+            + "  --max-in-flight=N in-process server batch limit [256]\n"
+            + "  --latency-ms=N    stub weather latency [80]\n"
+            + "  --error-rate=X    stub weather HTTP 503 fraction [0.01]\n"
+            + "  --target=URL      load a running server instead of an in-process one\n";
+
+    private static final long RETRY_DELAY_MILLIS = 20;
+
+    private int vehicles = 10_000;
+    private int steps = 10;
+    private int batchSize = 500;
+    private int clients = 64;
+    private int maxInFlight = 256;
+    private long latencyMillis = 80;
+    private double errorRate = 0.01;
+    private String target;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder decisions = new LongAdder();
+
+    public static void main(String[] args) throws Exception {
+        ServerLoadDriver driver = new ServerLoadDriver();
+        try {
+            driver.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+            return;
+        }
+        driver.run();
+    }
+
+    private void parse(String[] args) {
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            try {
+                switch (name) {
+                    case "vehicles": vehicles = Integer.parseInt(value); break;
+                    case "steps": steps = Integer.parseInt(value); break;
+                    case "batch-size": batchSize = Integer.parseInt(value); break;
+                    case "clients": clients = Integer.parseInt(value); break;
+                    case "max-in-flight": maxInFlight = Integer.parseInt(value); break;
+                    case "latency-ms": latencyMillis = Long.parseLong(value); break;
+                    case "error-rate": errorRate = Double.parseDouble(value); break;
+                    case "target": target = value; break;
+                    default: throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for --" + name + ": " + value, e);
+            }
+        }
+        if (vehicles <= 0 || steps <= 0 || batchSize <= 0 || clients <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Counts and sizes must be positive");
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        Metrics.setEnabled(true);
+        FleetTrace trace = FleetTrace.synthetic(vehicles, steps, 1000, OpenMeteoWeatherService.COMODORO_LATITUDE,
+                OpenMeteoWeatherService.COMODORO_LONGITUDE, 1.0, System.currentTimeMillis(), 42);
+        List<String> batches = toBatches(trace);
+
+        if (target != null) {
+            load(URI.create(target), batches);
+            return;
+        }
+        try (StubWeatherServer stub = new StubWeatherServer(64, latencyMillis, latencyMillis / 2, errorRate)) {
+            OpenMeteoWeatherService network = DecisionServerMain.newWeatherClient(stub.start());
+            try (DecisionServer server = DecisionServer.builder(DecisionServerMain.newWeatherService(network),
+                    new SpeedRuleEngine()).withMaxInFlight(maxInFlight).build()) {
+                int port = server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                System.out.println("in-process server, "
+                        + (ServerExecutors.virtualThreadsAvailable() ? "virtual threads" : "platform thread pools"));
+                load(URI.create("http://127.0.0.1:" + port), batches);
+                System.out.printf("weather    %d stub requests for %d locations, %d injected errors%n",
+                        stub.getRequestCount(), stub.getLocationCount(), stub.getErrorCount());
+                System.out.println();
+                System.out.print(Metrics.snapshot());
+            } finally {
+                network.shutdown();
+            }
+        }
+    }
+
+    private List<String> toBatches(FleetTrace trace) {
+        List<String> batches = new ArrayList<>();
+        StringBuilder batch = new StringBuilder();
+        int inBatch = 0;
+        for (int i = 0; i < trace.size(); i++) {
+            batch.append(String.format(Locale.US, "v%d,%d,%.6f,%.6f,%s%n", trace.vehicle(i), trace.timestampMillis(i),
+                    trace.latitude(i), trace.longitude(i), trace.roadType(i)));
+            if (++inBatch == batchSize) {
+                batches.add(batch.toString());
+                batch.setLength(0);
+                inBatch = 0;
+            }
+        }
+        if (inBatch > 0) {
+            batches.add(batch.toString());
+        }
+        return batches;
+    }
+
+    private void load(URI server, List<String> batches) throws InterruptedException {
+        URI decisionsUri = server.resolve("/v1/decisions");
+        ExecutorService clientThreads = Executors.newFixedThreadPool(clients);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientThreads)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        LatencyHistogram latency = Metrics.histogram("load.request");
+        AtomicInteger next = new AtomicInteger();
+
+        long startNanos = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            workers.execute(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < batches.size()) {
+                    send(client, decisionsUri, batches.get(index), latency);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        clientThreads.shutdownNow();
+
+        double seconds = elapsedNanos / 1e9;
+        LatencyHistogram.Snapshot requests = latency.snapshot();
+        System.out.printf("load       %d batches of up to %d reports from %d clients in %.2f s%n",
+                batches.size(), batchSize, clients, seconds);
+        System.out.printf("throughput %.0f requests/s, %.0f decisions/s%n",
+                accepted.sum() / seconds, decisions.sum() / seconds);
+        System.out.printf("latency    p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", requests.percentileNanos(50) / 1e6,
+                requests.percentileNanos(99) / 1e6, requests.getMaxNanos() / 1e6);
+        System.out.printf("responses  %d ok, %d rejected with 503 and retried, %d failed%n",
+                accepted.sum(), rejected.sum(), failed.sum());
+    }
+
+    /**
+     * Posts one batch, retrying while the server answers 503.
+     */
+    private void send(HttpClient client, URI uri, String batch, LatencyHistogram latency) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(batch))
+                .build();
+        while (true) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 503) {
+                    rejected.increment();
+                    TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MILLIS);
+                    continue;
+                }
+                latency.recordSince(start);
+                if (response.statusCode() == 200) {
+                    accepted.increment();
+                    decisions.add(countLines(response.body()) - 1);
+                } else {
+                    failed.increment();
+                }
+                return;
+            } catch (IOException e) {
+                failed.increment();
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static int countLines(String body) {
+        int lines = 0;
+        for (int i = 0; i < body.length(); i++) {
+            if (body.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,288 @@
+package com.fleet.safety.simulator;
+
+import com.fleet.safety.data.remote.CachingWeatherService;
+
+/**
+ * Knobs of one simulator run. Every value has a default; {@link #parse(String[])} overrides them
+ * from {@code --name=value} arguments.
+ */
+public final class SimulationOptions {
+
+    static final String USAGE = "Options (defaults in brackets):\n"
+            + "  --trace=FILE         replay a recorded CSV trace instead of a synthetic one\n"
+            + "  --write-trace=FILE   save the trace that was replayed\n"
+            + "  --vehicles=N         synthetic vehicles [1000]\n"
+            + "  --steps=N            synthetic reports per vehicle [60]\n"
+            + "  --interval-ms=N      synthetic time between reports [1000]\n"
+            + "  --seed=N             synthetic trace seed [42]\n"
+            + "  --latency-ms=N       stub server fixed latency [80]\n"
+            + "  --jitter-ms=N        stub server random extra latency [40]\n"
+            + "  --error-rate=X       stub server HTTP 503 fraction [0.01]\n"
+            + "  --server-threads=N   stub server threads [64]\n"
+            + "  --io-threads=N       weather client threads [16]\n"
+            + "  --concurrency=N      decisions in flight [512]\n"
+            + "  --cache-entries=N    cached grid cells [8192]\n"
+            + "  --deadline-ms=N      weather request deadline [2000]\n"
+            + "  --speedup=X          replay at X times trace speed, 0 for as fast as possible [0]\n";
+
+    private final String tracePath;
+    private final String writeTracePath;
+    private final int vehicles;
+    private final int steps;
+    private final long intervalMillis;
+    private final long seed;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final int serverThreads;
+    private final int ioThreads;
+    private final int concurrency;
+    private final int cacheEntries;
+    private final long deadlineMillis;
+    private final double speedup;
+
+    private SimulationOptions(Builder builder) {
+        this.tracePath = builder.tracePath;
+        this.writeTracePath = builder.writeTracePath;
+        this.vehicles = builder.vehicles;
+        this.steps = builder.steps;
+        this.intervalMillis = builder.intervalMillis;
+        this.seed = builder.seed;
+        this.latencyMillis = builder.latencyMillis;
+        this.jitterMillis = builder.jitterMillis;
+        this.errorRate = builder.errorRate;
+        this.serverThreads = builder.serverThreads;
+        this.ioThreads = builder.ioThreads;
+        this.concurrency = builder.concurrency;
+        this.cacheEntries = builder.cacheEntries;
+        this.deadlineMillis = builder.deadlineMillis;
+        this.speedup = builder.speedup;
+    }
+
+    public String getTracePath() {
+        return tracePath;
+    }
+
+    public String getWriteTracePath() {
+        return writeTracePath;
+    }
+
+    public int getVehicles() {
+        return vehicles;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public long getJitterMillis() {
+        return jitterMillis;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public int getServerThreads() {
+        return serverThreads;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getCacheEntries() {
+        return cacheEntries;
+    }
+
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    /**
+     * @return trace time replayed per wall-clock unit, or 0 to replay without pacing
+     */
+    public double getSpeedup() {
+        return speedup;
+    }
+
+    /**
+     * Cache TTL in wall-clock time. When paced, the real TTL is compressed by the speedup so
+     * entries expire at the same point of the trace as they would on a device.
+     */
+    long getCacheTtlMillis() {
+        return scaled(CachingWeatherService.DEFAULT_TTL_MILLIS);
+    }
+
+    long getCacheStaleWindowMillis() {
+        return scaled(CachingWeatherService.DEFAULT_STALE_WINDOW_MILLIS);
+    }
+
+    private long scaled(long millis) {
+        return speedup > 0 ? Math.max(1L, (long) (millis / speedup)) : millis;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @throws IllegalArgumentException on an unknown option or a malformed value
+     */
+    public static SimulationOptions parse(String[] args) {
+        Builder builder = builder();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            try {
+                switch (name) {
+                    case "trace": builder.withTracePath(value); break;
+                    case "write-trace": builder.withWriteTracePath(value); break;
+                    case "vehicles": builder.withVehicles(Integer.parseInt(value)); break;
+                    case "steps": builder.withSteps(Integer.parseInt(value)); break;
+                    case "interval-ms": builder.withIntervalMillis(Long.parseLong(value)); break;
+                    case "seed": builder.withSeed(Long.parseLong(value)); break;
+                    case "latency-ms": builder.withLatencyMillis(Long.parseLong(value)); break;
+                    case "jitter-ms": builder.withJitterMillis(Long.parseLong(value)); break;
+                    case "error-rate": builder.withErrorRate(Double.parseDouble(value)); break;
+                    case "server-threads": builder.withServerThreads(Integer.parseInt(value)); break;
+                    case "io-threads": builder.withIoThreads(Integer.parseInt(value)); break;
+                    case "concurrency": builder.withConcurrency(Integer.parseInt(value)); break;
+                    case "cache-entries": builder.withCacheEntries(Integer.parseInt(value)); break;
+                    case "deadline-ms": builder.withDeadlineMillis(Long.parseLong(value)); break;
+                    case "speedup": builder.withSpeedup(Double.parseDouble(value)); break;
+                    default: throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for --" + name + ": " + value, e);
+            }
+        }
+        return builder.build();
+    }
+
+    public static class Builder {
+        private String tracePath;
+        private String writeTracePath;
+        private int vehicles = 1000;
+        private int steps = 60;
+        private long intervalMillis = 1000;
+        private long seed = 42;
+        private long latencyMillis = 80;
+        private long jitterMillis = 40;
+        private double errorRate = 0.01;
+        private int serverThreads = 64;
+        private int ioThreads = 16;
+        private int concurrency = 512;
+        private int cacheEntries = 8192;
+        private long deadlineMillis = 2000;
+        private double speedup;
+
+        public Builder withTracePath(String tracePath) {
+            this.tracePath = tracePath;
+            return this;
+        }
+
+        public Builder withWriteTracePath(String writeTracePath) {
+            this.writeTracePath = writeTracePath;
+            return this;
+        }
+
+        public Builder withVehicles(int vehicles) {
+            this.vehicles = vehicles;
+            return this;
+        }
+
+        public Builder withSteps(int steps) {
+            this.steps = steps;
+            return this;
+        }
+
+        public Builder withIntervalMillis(long intervalMillis) {
+            this.intervalMillis = intervalMillis;
+            return this;
+        }
+
+        public Builder withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder withLatencyMillis(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+            return this;
+        }
+
+        public Builder withJitterMillis(long jitterMillis) {
+            this.jitterMillis = jitterMillis;
+            return this;
+        }
+
+        public Builder withErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        public Builder withServerThreads(int serverThreads) {
+            this.serverThreads = serverThreads;
+            return this;
+        }
+
+        public Builder withIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+            return this;
+        }
+
+        public Builder withConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public Builder withCacheEntries(int cacheEntries) {
+            this.cacheEntries = cacheEntries;
+            return this;
+        }
+
+        public Builder withDeadlineMillis(long deadlineMillis) {
+            this.deadlineMillis = deadlineMillis;
+            return this;
+        }
+
+        public Builder withSpeedup(double speedup) {
+            this.speedup = speedup;
+            return this;
+        }
+
+        public SimulationOptions build() {
+            if (vehicles <= 0 || steps <= 0 || intervalMillis <= 0) {
+                throw new IllegalArgumentException("Vehicles, steps and interval must be positive");
+            }
+            if (serverThreads <= 0 || ioThreads <= 0 || concurrency <= 0 || cacheEntries <= 0) {
+                throw new IllegalArgumentException("Thread counts, concurrency and cache entries must be positive");
+            }
+            if (deadlineMillis < 0 || speedup < 0) {
+                throw new IllegalArgumentException("Deadline and speedup cannot be negative");
+            }
+            return new SimulationOptions(this);
+        }
+    }
+}
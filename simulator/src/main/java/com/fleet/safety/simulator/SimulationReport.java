@@ -0,0 +1,98 @@
+package com.fleet.safety.simulator;
+
+import com.fleet.safety.metrics.LatencyHistogram;
+
+import java.io.PrintStream;
+
+/**
+ * Outcome of one simulator run.
+ */
+public final class SimulationReport {
+
+    private static final double MIB = 1024.0 * 1024.0;
+
+    private final int vehicles;
+    private final long traceSpanMillis;
+    private final long decisions;
+    private final long elapsedNanos;
+    private final LatencyHistogram.Snapshot latency;
+    private final long weatherErrors;
+    private final long httpRequests;
+    private final long httpLocations;
+    private final long injectedErrors;
+    private final long peakHeapBytes;
+    private final long retainedHeapBytes;
+
+    SimulationReport(int vehicles, long traceSpanMillis, long decisions, long elapsedNanos,
+                     LatencyHistogram.Snapshot latency, long weatherErrors, long httpRequests,
+                     long httpLocations, long injectedErrors, long peakHeapBytes, long retainedHeapBytes) {
+        this.vehicles = vehicles;
+        this.traceSpanMillis = traceSpanMillis;
+        this.decisions = decisions;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+        this.weatherErrors = weatherErrors;
+        this.httpRequests = httpRequests;
+        this.httpLocations = httpLocations;
+        this.injectedErrors = injectedErrors;
+        this.peakHeapBytes = peakHeapBytes;
+        this.retainedHeapBytes = retainedHeapBytes;
+    }
+
+    public long getDecisions() {
+        return decisions;
+    }
+
+    public double getDecisionsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : decisions * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return time from submitting a position report to its decision, weather lookup included
+     */
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    public long getWeatherErrors() {
+        return weatherErrors;
+    }
+
+    public long getHttpRequests() {
+        return httpRequests;
+    }
+
+    /**
+     * @return weather lookups answered without an HTTP request of their own, by the cache,
+     *         by joining a request already in flight or by sharing a batch request
+     */
+    public long getCallsSaved() {
+        return Math.max(0L, decisions - httpRequests);
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    /**
+     * @return heap in use after a full GC at the end of the run, with the service stack still live
+     */
+    public long getRetainedHeapBytes() {
+        return retainedHeapBytes;
+    }
+
+    public void writeTo(PrintStream out) {
+        out.printf("trace      %d vehicles, %d reports over %.1f s%n",
+                vehicles, decisions, traceSpanMillis / 1000.0);
+        out.printf("throughput %.0f decisions/s (%.2f s)%n", getDecisionsPerSecond(), elapsedNanos / 1e9);
+        out.printf("latency    p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                latency.percentileNanos(50) / 1e6, latency.percentileNanos(99) / 1e6, latency.getMaxNanos() / 1e6);
+        out.printf("network    %d lookups, %d HTTP requests for %d locations, %d calls saved (%.1f%%)%n",
+                decisions, httpRequests, httpLocations, getCallsSaved(),
+                decisions == 0 ? 0.0 : 100.0 * getCallsSaved() / decisions);
+        out.printf("errors     %d injected, %d decisions fell back to clear weather%n",
+                injectedErrors, weatherErrors);
+        out.printf("heap       peak %.1f MiB, retained %.1f MiB after GC%n",
+                peakHeapBytes / MIB, retainedHeapBytes / MIB);
+    }
+}
@@ -0,0 +1,212 @@
+package com.fleet.safety.simulator;
+
+import com.fleet.safety.domain.GridCell;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the Open-Meteo forecast endpoint, answering "current" requests for one or
+ * many locations in the real response format.
+ *
+ * Each request is delayed by the configured latency plus a uniform random jitter, and fails with
+ * HTTP 503 at the configured error rate. The weather of a location is derived from its grid cell
+ * and the current hour, so every vehicle in a cell sees the same conditions.
+ */
+public final class StubWeatherServer implements Closeable {
+
+    private static final String PATH = "/v1/forecast";
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    private final int threads;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder locations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param threads       Threads serving requests; injected latency holds one for its duration
+     * @param latencyMillis Fixed delay before every answer
+     * @param jitterMillis  Upper bound of the random delay added on top
+     * @param errorRate     Fraction of requests answered with HTTP 503, between 0 and 1
+     */
+    public StubWeatherServer(int threads, long latencyMillis, long jitterMillis, double errorRate) {
+        if (threads <= 0 || latencyMillis < 0 || jitterMillis < 0) {
+            throw new IllegalArgumentException("Threads must be positive and delays cannot be negative");
+        }
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1");
+        }
+        this.threads = threads;
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Binds an ephemeral loopback port and starts serving.
+     *
+     * @return base URL to pass to OpenMeteoWeatherService
+     */
+    public String start() throws IOException {
+        // Headers and body go out in separate writes; without TCP_NODELAY the body waits for
+        // the client's delayed ACK and every response looks about 40 ms slower than it is.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "stub-weather");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return locations answered successfully, summed over all requests
+     */
+    public long getLocationCount() {
+        return locations.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try {
+            delay();
+            String query = exchange.getRequestURI().getRawQuery();
+            String latitudes = parameter(query, "latitude");
+            String longitudes = parameter(query, "longitude");
+            if (latitudes == null || longitudes == null || parameter(query, "current") == null) {
+                respond(exchange, 400, "{\"error\":true,\"reason\":\"Only current weather is stubbed\"}");
+                return;
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errors.increment();
+                respond(exchange, 503, "{\"error\":true,\"reason\":\"Injected failure\"}");
+                return;
+            }
+
+            String[] latitudeList = latitudes.split(",");
+            String[] longitudeList = longitudes.split(",");
+            if (latitudeList.length != longitudeList.length) {
+                respond(exchange, 400, "{\"error\":true,\"reason\":\"Coordinate lists differ in length\"}");
+                return;
+            }
+
+            long hour = System.currentTimeMillis() / HOUR_MILLIS;
+            StringBuilder body = new StringBuilder(latitudeList.length * 160);
+            if (latitudeList.length > 1) {
+                body.append('[');
+            }
+            for (int i = 0; i < latitudeList.length; i++) {
+                if (i > 0) {
+                    body.append(',');
+                }
+                appendLocation(body, Double.parseDouble(latitudeList[i]), Double.parseDouble(longitudeList[i]), hour);
+            }
+            if (latitudeList.length > 1) {
+                body.append(']');
+            }
+            locations.add(latitudeList.length);
+            respond(exchange, 200, body.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        } catch (RuntimeException e) {
+            respond(exchange, 400, "{\"error\":true,\"reason\":\"Malformed request\"}");
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        long millis = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (millis > 0) {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        }
+    }
+
+    /**
+     * Conditions repeat per cell and hour: mostly clear, some rain, occasional snow or frost.
+     */
+    private static void appendLocation(StringBuilder body, double latitude, double longitude, long hour) {
+        long hash = GridCell.keyOf(latitude, longitude) * 0x9E3779B97F4A7C15L + hour;
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 29;
+
+        int bucket = (int) Math.floorMod(hash, 100L);
+        double temperature = -5 + Math.floorMod(hash >>> 8, 300L) / 10.0;
+        double precipitation = 0;
+        int weatherCode = 0;
+        if (bucket < 20) {
+            precipitation = 0.1 + Math.floorMod(hash >>> 20, 80L) / 10.0;
+            weatherCode = 61;
+        } else if (bucket < 25) {
+            precipitation = 0.2 + Math.floorMod(hash >>> 20, 30L) / 10.0;
+            weatherCode = 73;
+        }
+
+        body.append(String.format(Locale.US,
+                "{\"latitude\":%.4f,\"longitude\":%.4f,\"current\":{\"time\":%d,\"interval\":900,"
+                        + "\"temperature_2m\":%.1f,\"precipitation\":%.1f,\"weather_code\":%d}}",
+                latitude, longitude, hour * 3600, temperature, precipitation, weatherCode));
+    }
+
+    private static String parameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0 && pair.substring(0, separator).equals(name)) {
+                return URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}